@@ -0,0 +1,211 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ Tile symbols with dense ids 0 .. size() - 1, in the order given. A symbol is one or more
+ characters ("qu"), and text is split into symbols greedily, longest symbol first.
+
+ The Dawg keeps one bit per symbol in an int next to its TERMINAL bit, so an alphabet has at most
+ MAX_SIZE symbols. Symbols are lower case, like the words they are matched against.
+ */
+class Alphabet {
+    static final int NONE = -1;
+    static final int MAX_SIZE = 31;
+
+    static final Alphabet ENGLISH = new Alphabet(letters('a', 'z'));
+    // standard Boggle: a single "qu" tile instead of "q"
+    static final Alphabet ENGLISH_QU = ENGLISH.replace("q", "qu");
+
+    // ids of single character symbols below 256, the rest is looked up in symbolIds
+    private static final int TABLE_SIZE = 256;
+
+    private final String[] symbols;
+    // the first run of symbols are the single characters first, first + 1, ..., found by subtraction
+    private final char first;
+    private final int run;
+    private final int[] charIds = new int[TABLE_SIZE];
+    private final Map<String, Integer> symbolIds = new HashMap<String, Integer>();
+    private final int maxLength;
+
+    public Alphabet(String... symbols) {
+        if (symbols.length > MAX_SIZE) throw new IllegalArgumentException("At most " + MAX_SIZE + " symbols, got " + symbols.length);
+
+        int maxLength = 0;
+
+        this.symbols = symbols.clone();
+        Arrays.fill(charIds, NONE);
+
+        for (int id = 0; id < symbols.length; id++) {
+            String symbol = symbols[id];
+
+            if (symbol.isEmpty()) throw new IllegalArgumentException("Empty symbol");
+            if (symbolIds.put(symbol, id) != null) throw new IllegalArgumentException("Duplicate symbol " + symbol);
+
+            if (symbol.length() == 1 && symbol.charAt(0) < TABLE_SIZE) charIds[symbol.charAt(0)] = id;
+
+            maxLength = Math.max(maxLength, symbol.length());
+        }
+
+        this.maxLength = maxLength;
+
+        int run = 0;
+
+        while (run < symbols.length && symbols[run].length() == 1 && symbols[run].charAt(0) == symbols[0].charAt(0) + run) {
+            run++;
+        }
+
+        this.first = symbols.length == 0 ? 0 : symbols[0].charAt(0);
+        this.run = run;
+    }
+
+    private static String[] letters(char from, char to) {
+        String[] letters = new String[to - from + 1];
+
+        for (char c = from; c <= to; c++) {
+            letters[c - from] = String.valueOf(c);
+        }
+
+        return letters;
+    }
+
+    /*
+     * the same alphabet with one symbol swapped for another in its place
+     */
+    public Alphabet replace(String symbol, String replacement) {
+        String[] replaced = symbols.clone();
+        replaced[id(symbol)] = replacement;
+
+        return new Alphabet(replaced);
+    }
+
+    /*
+     * symbols separated by commas, e.g. "a,b,c,qu"
+     */
+    public static Alphabet parse(String symbols) {
+        return new Alphabet(symbols.split(","));
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    public int id(char c) {
+        int id = c - first;
+
+        if (id >= 0 && id < run) return id;
+
+        if (c < TABLE_SIZE) return charIds[c];
+
+        Integer symbolId = symbolIds.get(String.valueOf(c));
+
+        return symbolId == null ? NONE : symbolId;
+    }
+
+    public int id(String symbol) {
+        if (symbol.length() == 1) return id(symbol.charAt(0));
+
+        Integer id = symbolIds.get(symbol);
+
+        return id == null ? NONE : id;
+    }
+
+    /*
+     * the tile a letter stands for on a generated board: the letter when it is a symbol, else the
+     * first symbol starting with it ("qu" for 'q'), else the letter itself
+     */
+    public String tileOf(char letter) {
+        if (id(letter) != NONE) return String.valueOf(letter);
+
+        for (String symbol : symbols) {
+            if (symbol.charAt(0) == letter) return symbol;
+        }
+
+        return String.valueOf(letter);
+    }
+
+    /*
+     * true when every symbol is one character, so text and symbols line up one to one
+     */
+    public boolean isSingleCharacter() {
+        return maxLength == 1;
+    }
+
+    /*
+     * the symbol ids of the text as the chars of a string, or null when the text cannot be split into symbols
+     */
+    public String encode(String text) {
+        char[] ids = new char[text.length()];
+        int length = 0;
+
+        if (isSingleCharacter()) {
+            for (int i = 0, sz = text.length(); i < sz; i++) {
+                int id = id(text.charAt(i));
+
+                if (id == NONE) return null;
+
+                ids[i] = (char) id;
+            }
+
+            return new String(ids);
+        }
+
+        for (int i = 0, sz = text.length(); i < sz; ) {
+            int symbolLength = Math.min(maxLength, sz - i);
+            int id = NONE;
+
+            while (symbolLength > 0 && (id = id(text.substring(i, i + symbolLength))) == NONE) {
+                symbolLength--;
+            }
+
+            if (id == NONE) return null;
+
+            ids[length++] = (char) id;
+            i += symbolLength;
+        }
+
+        return new String(ids, 0, length);
+    }
+
+    /*
+     * the text of the first length symbol ids
+     */
+    public String decode(char[] ids, int length) {
+        if (isSingleCharacter()) {
+            char[] chars = new char[length];
+
+            for (int i = 0; i < length; i++) {
+                chars[i] = symbols[ids[i]].charAt(0);
+            }
+
+            return new String(chars);
+        }
+
+        StringBuilder sb = new StringBuilder(length + 1);
+
+        for (int i = 0; i < length; i++) {
+            sb.append(symbols[ids[i]]);
+        }
+
+        return sb.toString();
+    }
+
+    /*
+     * number of characters in the text of the first length symbol ids
+     */
+    public int textLength(char[] ids, int length) {
+        if (isSingleCharacter()) return length;
+
+        int textLength = 0;
+
+        for (int i = 0; i < length; i++) {
+            textLength += symbols[ids[i]].length();
+        }
+
+        return textLength;
+    }
+}
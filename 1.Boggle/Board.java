@@ -1,13 +1,105 @@
 import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+/*
+ Besides the nodes, the board keeps a flat copy for the solvers: tile values by cell index
+ (the index of the node in the list) and the neighbours of cell i at
+ adjacency[adjacencyOffsets[i] .. adjacencyOffsets[i + 1]).
+
+ A value is the first character of its tile. Only the TrieCursor search reads whole tiles
+ (see getTile), the other solvers assume one character per tile.
+ */
 class Board {
     private final List<Node> nodes;
+    private final char[] values;
+    private final int[] adjacencyOffsets;
+    private final int[] adjacency;
+    private final boolean multiCharacter;
 
     public Board(List<Node> nodes) {
         this.nodes = nodes;
+        this.values = new char[nodes.size()];
+        this.adjacencyOffsets = new int[nodes.size() + 1];
+
+        boolean multiCharacter = false;
+        Map<Position, Integer> indices = new HashMap<Position, Integer>();
+
+        for (int i = 0, sz = nodes.size(); i < sz; i++) {
+            indices.put(nodes.get(i).getPosition(), i);
+            values[i] = nodes.get(i).getValue();
+            multiCharacter |= nodes.get(i).isMultiCharacter();
+            adjacencyOffsets[i + 1] = adjacencyOffsets[i] + nodes.get(i).getNeighbours().size();
+        }
+
+        this.adjacency = new int[adjacencyOffsets[nodes.size()]];
+        this.multiCharacter = multiCharacter;
+
+        for (int i = 0, sz = nodes.size(); i < sz; i++) {
+            int offset = adjacencyOffsets[i];
+
+            for (Position neighbour : nodes.get(i).getNeighbours()) {
+                adjacency[offset++] = indices.get(neighbour);
+            }
+        }
+    }
+
+    private Board(List<Node> nodes, char[] values, int[] adjacencyOffsets, int[] adjacency, boolean multiCharacter) {
+        this.nodes = nodes;
+        this.multiCharacter = multiCharacter;
+        this.values = values;
+        this.adjacencyOffsets = adjacencyOffsets;
+        this.adjacency = adjacency;
+    }
+
+    /*
+     * copy of the board with one tile changed, sharing the layout with this board
+     */
+    public Board withTile(int cell, String tile) {
+        List<Node> changedNodes = new ArrayList<Node>(nodes);
+        char[] changedValues = values.clone();
+        Node node = nodes.get(cell);
+        boolean changedMultiCharacter = false;
+
+        changedNodes.set(cell, new Node(tile, node.getPosition(), node.getNeighbours()));
+        changedValues[cell] = tile.charAt(0);
+
+        for (Node changedNode : changedNodes) {
+            changedMultiCharacter |= changedNode.isMultiCharacter();
+        }
+
+        return new Board(changedNodes, changedValues, adjacencyOffsets, adjacency, changedMultiCharacter);
     }
 
     public List<Node> getNodes() {
         return nodes;
     }
+
+    public int size() {
+        return values.length;
+    }
+
+    public char[] getValues() {
+        return values;
+    }
+
+    public int[] getAdjacencyOffsets() {
+        return adjacencyOffsets;
+    }
+
+    public int[] getAdjacency() {
+        return adjacency;
+    }
+
+    public String getTile(int cell) {
+        return nodes.get(cell).getTile();
+    }
+
+    /*
+     * true when some tile has more than one character
+     */
+    public boolean isMultiCharacter() {
+        return multiCharacter;
+    }
 }
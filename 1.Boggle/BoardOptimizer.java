@@ -0,0 +1,300 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ Searches for high scoring boards with simulated annealing, one independent chain per thread.
+
+ A step changes one random tile to a random letter (by English frequency) and rescores the board.
+ Letters become tiles of the dictionary's alphabet (see Alphabet.tileOf), so on a Qu alphabet a
+ 'q' is a "qu" tile whichever way the board is scored.
+ Better boards are always kept, worse ones with probability exp(-loss / temperature), and the
+ temperature falls geometrically from START_TEMPERATURE to END_TEMPERATURE over the time budget,
+ so a chain ends as a plain hill climb.
+
+ Boards from INCREMENTAL_TILES tiles up are rescored with IncrementalBoggleSolver, which only
+ searches the paths through the changed tile but has to undo a rejected step with a second update.
+ Smaller boards are cheaper to search again in full with the TrieCursor search, counting points
+ without building the words.
+
+ Usage: java BoardOptimizer [dimension] [seconds] [threads] [seed]
+ */
+class BoardOptimizer {
+    private static final double START_TEMPERATURE = 20;
+    private static final double END_TEMPERATURE = 0.2;
+    private static final int INCREMENTAL_TILES = 25;
+    // steps between clock reads
+    private static final int CHECK_INTERVAL = 256;
+
+    private final Dawg dictionary;
+    private final Dawg reversedPrefixes;
+    private final GeneratePossibleWordsWithTrieCursorSolver scorer;
+    private final int dimension;
+
+    public BoardOptimizer(Dawg dictionary, int dimension) {
+        boolean incremental = dimension * dimension >= INCREMENTAL_TILES;
+
+        this.dictionary = dictionary;
+        this.reversedPrefixes = incremental ? IncrementalBoggleSolver.reversedPrefixes(dictionary) : null;
+        this.scorer = incremental ? null : new GeneratePossibleWordsWithTrieCursorSolver(dictionary);
+        this.dimension = dimension;
+    }
+
+    static class Result {
+        private final String[] tiles;
+        private final int score;
+        private final long evaluated;
+
+        private Result(String[] tiles, int score, long evaluated) {
+            this.tiles = tiles;
+            this.score = score;
+            this.evaluated = evaluated;
+        }
+
+        /*
+         * the tiles in reading order
+         */
+        public String[] getTiles() {
+            return tiles.clone();
+        }
+
+        /*
+         * the tiles run together, as Boggle reads a board
+         */
+        public String getBoard() {
+            StringBuilder sb = new StringBuilder();
+
+            for (String tile : tiles) {
+                sb.append(tile);
+            }
+
+            return sb.toString();
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /*
+         * boards scored, summed over all chains
+         */
+        public long getEvaluated() {
+            return evaluated;
+        }
+    }
+
+    public Result optimize(long millis, int chains, long seed) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(chains);
+        List<Future<Result>> results = new ArrayList<Future<Result>>();
+        long deadline = System.nanoTime() + millis * 1000000;
+
+        try {
+            for (int chain = 0; chain < chains; chain++) {
+                results.add(executor.submit(new Chain(seed + chain, deadline, millis * 1000000)));
+            }
+
+            Result best = null;
+            long evaluated = 0;
+
+            for (Future<Result> future : results) {
+                Result result = future.get();
+                evaluated += result.evaluated;
+
+                if (best == null || result.score > best.score) best = result;
+            }
+
+            return new Result(best.tiles, best.score, evaluated);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class Chain implements Callable<Result> {
+        private final long seed;
+        private final long deadline;
+        private final long duration;
+
+        private Chain(long seed, long deadline, long duration) {
+            this.seed = seed;
+            this.deadline = deadline;
+            this.duration = duration;
+        }
+
+        public Result call() {
+            RandomBoardGenerator letters = new RandomBoardGenerator(seed);
+            Random random = new Random(~seed);
+            String[] tiles = new String[dimension * dimension];
+
+            for (int cell = 0; cell < tiles.length; cell++) {
+                tiles[cell] = dictionary.alphabet().tileOf(letters.nextLetter());
+            }
+
+            Board board = Boggle.buildBoard(tiles);
+            Evaluator evaluator = scorer == null
+                ? new IncrementalEvaluator(new IncrementalBoggleSolver(dictionary, reversedPrefixes), board)
+                : new FullEvaluator(scorer, board);
+
+            int score = evaluator.score();
+            int bestScore = score;
+            String[] best = tiles.clone();
+            double temperature = START_TEMPERATURE;
+            long evaluated = 1;
+
+            while (true) {
+                if (evaluated % CHECK_INTERVAL == 0) {
+                    long left = deadline - System.nanoTime();
+
+                    if (left <= 0) break;
+
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1 - (double) left / duration);
+                }
+
+                int cell = random.nextInt(tiles.length);
+                String tile = dictionary.alphabet().tileOf(letters.nextLetter());
+
+                if (tile.equals(tiles[cell])) continue;
+
+                int next = evaluator.change(cell, tile);
+                evaluated++;
+
+                if (next >= score || random.nextDouble() < Math.exp((next - score) / temperature)) {
+                    evaluator.accept();
+                    tiles[cell] = tile;
+                    score = next;
+
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = tiles.clone();
+                    }
+                } else {
+                    evaluator.reject();
+                }
+            }
+
+            return new Result(best, bestScore, evaluated);
+        }
+    }
+
+    /*
+     * score of the current board, and of the board with one tile changed until the change is accepted or rejected
+     */
+    private interface Evaluator {
+        int score();
+
+        int change(int cell, String tile);
+
+        void accept();
+
+        void reject();
+    }
+
+    private static class FullEvaluator implements Evaluator {
+        private final GeneratePossibleWordsWithTrieCursorSolver scorer;
+        private Board board;
+        private Board changed;
+
+        private FullEvaluator(GeneratePossibleWordsWithTrieCursorSolver scorer, Board board) {
+            this.scorer = scorer;
+            this.board = board;
+        }
+
+        public int score() {
+            return scorer.score(board);
+        }
+
+        public int change(int cell, String tile) {
+            changed = board.withTile(cell, tile);
+
+            return scorer.score(changed);
+        }
+
+        public void accept() {
+            board = changed;
+        }
+
+        public void reject() {
+        }
+    }
+
+    private static class IncrementalEvaluator implements Evaluator {
+        private final IncrementalBoggleSolver solver;
+        private final Position[] positions;
+        private final String[] tiles;
+        private int cell;
+        private String tile;
+
+        private IncrementalEvaluator(IncrementalBoggleSolver solver, Board board) {
+            this.solver = solver;
+            this.positions = new Position[board.size()];
+            this.tiles = new String[board.size()];
+
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = board.getNodes().get(i).getPosition();
+                tiles[i] = board.getTile(i);
+            }
+
+            solver.solve(board);
+        }
+
+        public int score() {
+            return solver.getScore();
+        }
+
+        public int change(int cell, String tile) {
+            this.cell = cell;
+            this.tile = tile;
+            solver.setTile(positions[cell], tile);
+
+            return solver.getScore();
+        }
+
+        public void accept() {
+            tiles[cell] = tile;
+        }
+
+        public void reject() {
+            solver.setTile(positions[cell], tiles[cell]);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int dimension = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        Dawg dictionary = Boggle.loadSnapshot();
+
+        if (dictionary == null) {
+            dictionary = Dawg.build(WithDictionary.readDictionary(WithDictionary.DICTIONARY_FILE));
+        }
+
+        BoardOptimizer optimizer = new BoardOptimizer(dictionary, dimension);
+        long start = System.nanoTime();
+        Result result = optimizer.optimize((long) (seconds * 1000), threads, seed);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        String[] tiles = result.getTiles();
+
+        for (int row = 0; row < dimension; row++) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int column = 0; column < dimension; column++) {
+                sb.append(tiles[row * dimension + column]);
+            }
+
+            System.out.println(sb);
+        }
+
+        System.out.println("score " + result.getScore());
+        System.err.printf("%d boards evaluated in %.2f s on %d threads (%.0f boards/second)%n",
+            result.getEvaluated(), elapsed, threads, result.getEvaluated() / elapsed);
+    }
+}
@@ -3,19 +3,62 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
 
 class Boggle {
+    static final String SNAPSHOT_FILE = "dict.dawg";
+
     private BoggleSolver solver;
     private Board board;
+    private final SearchMetrics metrics;
 
     public Boggle(String input) {
-        board = buildBoard(input);
-        //solver = new GeneratePossibleWordsSolver();
-        solver = new GeneratePossibleWordsWithPruningSolver();
-        //solver = new FindWordsFromDictionarySolver();
+        this(input, null);
+    }
+
+    /*
+     * metrics, when not null, get the load, build and search times and the search counters
+     */
+    public Boggle(String input, SearchMetrics metrics) {
+        this.metrics = metrics;
+
+        // without a snapshot (see DawgCompiler) the solvers read dict.txt on every solve
+        long start = System.nanoTime();
+        Dawg snapshot = loadSnapshot();
+        Alphabet alphabet = snapshot == null ? Alphabet.ENGLISH : snapshot.alphabet();
+        long loaded = System.nanoTime();
+        board = buildBoard(input, alphabet);
+
+        if (metrics != null) {
+            metrics.addLoad(loaded - start);
+            metrics.addBuild(System.nanoTime() - loaded);
+        }
+
+        //solver = new GeneratePossibleWordsSolver(snapshot);
+        solver = new GeneratePossibleWordsWithPruningSolver(snapshot);
+        //solver = new GeneratePossibleWordsWithTrieCursorSolver(snapshot);
+        //solver = new FindWordsFromDictionarySolver(snapshot);
+
+        // only the TrieCursor search reads tiles of more than one character
+        if (!alphabet.isSingleCharacter()) {
+            solver = new GeneratePossibleWordsWithTrieCursorSolver(snapshot);
+        }
     }
 
-    private Board buildBoard(String input) {
+    static Dawg loadSnapshot() {
+        if (!new File(SNAPSHOT_FILE).exists()) return null;
+
+        try {
+            return MappedDawg.load(SNAPSHOT_FILE);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+
+        return null;
+    }
+
+    static Board buildBoard(String input) {
         List<Node> nodes = new ArrayList<Node>(input.length());
 
         int dimension = (int) Math.sqrt(input.length());
@@ -28,11 +71,59 @@ class Boggle {
         return new Board(nodes);
     }
 
-    private Node buildNode(char value, Position position, int dimension) {
+    /*
+     * the tiles in reading order, each tile whole
+     */
+    static Board buildBoard(String[] tiles) {
+        List<Node> nodes = new ArrayList<Node>(tiles.length);
+        int dimension = (int) Math.sqrt(tiles.length);
+        assert (dimension * dimension == tiles.length); // TODO: requires correct input handling
+
+        for (int i = 0; i < tiles.length; i++) {
+            Position position = new Position(i / dimension, i % dimension);
+            nodes.add(new Node(tiles[i], position, getNeighbours(position, dimension)));
+        }
+
+        return new Board(nodes);
+    }
+
+    /*
+     * the input split into tiles of the alphabet (greedily, so "qu" is one tile when the alphabet has it)
+     */
+    static Board buildBoard(String input, Alphabet alphabet) {
+        if (alphabet.isSingleCharacter()) return buildBoard(input);
+
+        String symbols = alphabet.encode(input.toLowerCase());
+
+        if (symbols == null) throw new IllegalArgumentException(input + " has tiles outside the alphabet");
+
+        List<Node> nodes = new ArrayList<Node>(symbols.length());
+        int dimension = (int) Math.sqrt(symbols.length());
+        assert (dimension * dimension == symbols.length()); // TODO: requires correct input handling
+
+        for (int i = 0, sz = symbols.length(); i < sz; i++) {
+            Position position = new Position(i / dimension, i % dimension);
+            nodes.add(new Node(alphabet.symbol(symbols.charAt(i)), position, getNeighbours(position, dimension)));
+        }
+
+        return new Board(nodes);
+    }
+
+    /*
+     * "english", "qu" (English with a single Qu tile) or the symbols separated by commas
+     */
+    static Alphabet parseAlphabet(String name) {
+        if (name.equals("english")) return Alphabet.ENGLISH;
+        if (name.equals("qu")) return Alphabet.ENGLISH_QU;
+
+        return Alphabet.parse(name);
+    }
+
+    private static Node buildNode(char value, Position position, int dimension) {
         return new Node(value, position, getNeighbours(position, dimension));
     }
 
-    private List<Position> getNeighbours(Position position, int dimension) {
+    private static List<Position> getNeighbours(Position position, int dimension) {
         int[] directions = {-1, 0, 1};
         List<Position> neighbours = new ArrayList<Position>();
 
@@ -49,11 +140,11 @@ class Boggle {
         return neighbours;
     }
 
-    private boolean validPosition(Position position, int dimension) {
+    private static boolean validPosition(Position position, int dimension) {
         return inRange(position.getRow(), dimension) && inRange(position.getColumn(), dimension);
     }
 
-    private boolean inRange(int x, int dimension) {
+    private static boolean inRange(int x, int dimension) {
         return x >= 0 && x < dimension;
     }
 
@@ -62,19 +153,46 @@ class Boggle {
     }
 
     public void solve() {
-        List<String> foundWords = solver.solve(board);
+        System.out.println(formatWords(metrics == null ? solver.solve(board) : SearchMetrics.solve(solver, board, metrics)));
+    }
+
+    static String formatWords(List<String> foundWords) {
+        StringBuilder sb = new StringBuilder();
         Collections.sort(foundWords);
 
         for (String foundWord : foundWords) {
             if (foundWord.length() < 3) continue;
-            System.out.print(foundWord + " ");
+            sb.append(foundWord).append(" ");
         }
 
-        System.out.println();
+        return sb.toString();
+    }
+
+    /*
+     * standard Boggle points: words under 3 letters score nothing, then 1, 1, 2, 3, 5 and 11 for 8 letters or more
+     */
+    static int score(String word) {
+        return score(word.length());
     }
 
+    static int score(int length) {
+        if (length < 3) return 0;
+        if (length <= 4) return 1;
+        if (length == 5) return 2;
+        if (length == 6) return 3;
+        if (length == 7) return 5;
+
+        return 11;
+    }
+
+    /*
+     * java Boggle [board] [--metrics, prints the SearchMetrics of the solve as JSON to stderr]
+     */
     public static void main(String[] args) {
         assert (args.length > 0); // TODO: requires correct input handling
-        new Boggle(args[0]).solve();
+        SearchMetrics metrics = args.length > 1 && args[1].equals("--metrics") ? new SearchMetrics() : null;
+        new Boggle(args[0], metrics).solve();
+
+        if (metrics != null) System.err.println(metrics.toJson());
     }
 }
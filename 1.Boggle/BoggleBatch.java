@@ -0,0 +1,238 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ Solves one board per input line against a single dictionary shared by all worker threads.
+ Results are written in input order as "board: words", throughput goes to stderr.
+
+ Given a metrics file, every board also gets a line of SearchMetrics JSON there, in input order,
+ and the metrics of all boards are added up and printed to stderr at the end.
+
+ Usage: java BoggleBatch [boards file, - for stdin] [threads] [result cache MB, 0 for none] [metrics file]
+ */
+class BoggleBatch {
+    private static final int BOARDS_IN_FLIGHT_PER_THREAD = 64;
+
+    private final BoggleSolver solver;
+    private final Alphabet alphabet;
+    private final int threads;
+    private final Writer metricsOutput;
+    private final SearchMetrics metrics = new SearchMetrics();
+
+    public BoggleBatch(BoggleSolver solver, int threads) {
+        this(solver, threads, null);
+    }
+
+    /*
+     * metricsOutput may be null, then no metrics are taken
+     */
+    public BoggleBatch(BoggleSolver solver, int threads, Writer metricsOutput) {
+        this(solver, Alphabet.ENGLISH, threads, metricsOutput);
+    }
+
+    /*
+     * boards are read as tiles of the alphabet, which must be the solver's dictionary's
+     */
+    public BoggleBatch(BoggleSolver solver, Alphabet alphabet, int threads, Writer metricsOutput) {
+        this.solver = solver;
+        this.alphabet = alphabet;
+        this.threads = threads;
+        this.metricsOutput = metricsOutput;
+    }
+
+    /*
+     * the metrics of all boards run so far
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long run(BufferedReader input, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<Result>> pending = new ArrayDeque<Future<Result>>();
+        int window = threads * BOARDS_IN_FLIGHT_PER_THREAD;
+        long boards = 0;
+        String line;
+
+        try {
+            while ((line = input.readLine()) != null) {
+                line = line.trim();
+
+                if (line.isEmpty()) continue;
+
+                // bounded look-ahead keeps memory flat while still writing results in input order
+                if (pending.size() == window) {
+                    writeResult(pending.removeFirst(), output);
+                }
+
+                pending.addLast(executor.submit(new SolveTask(line)));
+                boards++;
+            }
+
+            while (!pending.isEmpty()) {
+                writeResult(pending.removeFirst(), output);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        output.flush();
+
+        if (metricsOutput != null) metricsOutput.flush();
+
+        return boards;
+    }
+
+    private void writeResult(Future<Result> future, Writer output) throws IOException, InterruptedException {
+        Result result;
+
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        output.write(result.line);
+        output.write(System.lineSeparator());
+
+        if (result.metrics != null) {
+            metrics.add(result.metrics);
+            metricsOutput.write("{\"board\":" + jsonString(result.input) + "," + result.metrics.toJson().substring(1));
+            metricsOutput.write(System.lineSeparator());
+        }
+    }
+
+    /*
+     * text as a JSON string, quotes included
+     */
+    private static String jsonString(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+
+        for (int i = 0, sz = text.length(); i < sz; i++) {
+            char c = text.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    private static class Result {
+        private final String input;
+        private final String line;
+        private final SearchMetrics metrics;
+
+        private Result(String input, String line, SearchMetrics metrics) {
+            this.input = input;
+            this.line = line;
+            this.metrics = metrics;
+        }
+    }
+
+    private class SolveTask implements Callable<Result> {
+        private final String input;
+
+        private SolveTask(String input) {
+            this.input = input;
+        }
+
+        public Result call() {
+            // the dictionary is lower case, buildBoard only lowers multi-character alphabets itself
+            String text = input.toLowerCase();
+            String tiles = alphabet.encode(text);
+
+            if (tiles == null) {
+                return new Result(input, input + ": tiles outside the alphabet", null);
+            }
+
+            int dimension = (int) Math.sqrt(tiles.length());
+
+            if (dimension * dimension != tiles.length()) {
+                return new Result(input, input + ": not a square board", null);
+            }
+
+            if (metricsOutput == null) {
+                return new Result(input, input + ": " + Boggle.formatWords(solver.solve(Boggle.buildBoard(text, alphabet))), null);
+            }
+
+            SearchMetrics boardMetrics = new SearchMetrics();
+            long start = System.nanoTime();
+            Board board = Boggle.buildBoard(text, alphabet);
+            boardMetrics.addBuild(System.nanoTime() - start);
+            List<String> foundWords = SearchMetrics.solve(solver, board, boardMetrics);
+
+            return new Result(input, input + ": " + Boggle.formatWords(foundWords), boardMetrics);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String fileName = args.length > 0 ? args[0] : "-";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long cacheBytes = args.length > 2 ? Long.parseLong(args[2]) << 20 : 0;
+        String metricsFileName = args.length > 3 ? args[3] : null;
+
+        long start = System.nanoTime();
+        Dawg dictionary = Boggle.loadSnapshot();
+
+        if (dictionary == null) {
+            dictionary = Dawg.build(WithDictionary.readDictionary(WithDictionary.DICTIONARY_FILE));
+        }
+
+        long loaded = System.nanoTime();
+
+        BufferedReader input = new BufferedReader(fileName.equals("-") ? new InputStreamReader(System.in) : new FileReader(fileName));
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out));
+        BoggleSolver solver = new GeneratePossibleWordsWithPruningSolver(dictionary);
+
+        // only the TrieCursor search reads tiles of more than one character
+        if (!dictionary.alphabet().isSingleCharacter()) {
+            solver = new GeneratePossibleWordsWithTrieCursorSolver(dictionary);
+        }
+        CachingBoggleSolver cache = null;
+
+        if (cacheBytes > 0) {
+            solver = cache = new CachingBoggleSolver(solver, dictionary, cacheBytes);
+        }
+
+        Writer metricsOutput = metricsFileName == null ? null : new BufferedWriter(new FileWriter(metricsFileName));
+        BoggleBatch batch = new BoggleBatch(solver, dictionary.alphabet(), threads, metricsOutput);
+        long boards = batch.run(input, output);
+        input.close();
+
+        if (metricsOutput != null) metricsOutput.close();
+
+        double seconds = (System.nanoTime() - loaded) / 1e9;
+        System.err.printf("Dictionary loaded in %d ms, solved %d boards in %.2f s on %d threads (%.0f boards/second)%n",
+            (loaded - start) / 1000000, boards, seconds, threads, boards / seconds);
+
+        if (cache != null) {
+            System.err.printf("Result cache: %d hits, %d misses, %d boards in %d KB%n",
+                cache.getHits(), cache.getMisses(), cache.size(), cache.getUsedBytes() >> 10);
+        }
+
+        if (metricsOutput != null) {
+            batch.getMetrics().addLoad(loaded - start);
+            System.err.println("Metrics: " + batch.getMetrics().toJson());
+        }
+    }
+}
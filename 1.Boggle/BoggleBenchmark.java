@@ -0,0 +1,217 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ Compares the BoggleSolver implementations on seeded random boards of several sizes.
+
+ Dictionary loading is measured on its own and every solver gets an already loaded dictionary,
+ so the solve numbers are search time only. Per solver and board size the benchmark warms up, then
+ solves the sample boards in turn until the sample or the time budget runs out, and reports
+ throughput, latency percentiles and bytes allocated per solve (over all threads, so fork/join
+ workers are included). Last, single tile changes through IncrementalBoggleSolver are timed
+ against solving the changed board again.
+
+ Usage: java BoggleBenchmark [sizes, e.g. 4,5,10,20,50] [boards per size] [seed]
+ */
+class BoggleBenchmark {
+    private static final long WARMUP_NANOS = 2000000000L;
+    private static final long MEASUREMENT_NANOS = 5000000000L;
+
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    private static class Entry {
+        private final String name;
+        private final BoggleSolver solver;
+        private final int maxTiles;
+
+        private Entry(String name, BoggleSolver solver, int maxTiles) {
+            this.name = name;
+            this.solver = solver;
+            this.maxTiles = maxTiles;
+        }
+    }
+
+    public void add(String name, BoggleSolver solver, int maxTiles) {
+        entries.add(new Entry(name, solver, maxTiles));
+    }
+
+    public void run(int[] sizes, int boards, long seed) {
+        System.out.printf("%-28s %7s %10s %10s %10s %10s %10s %12s%n", "solver", "board", "boards/s", "p50 us", "p90 us", "p99 us", "max us", "bytes/solve");
+
+        for (int dimension : sizes) {
+            RandomBoardGenerator generator = new RandomBoardGenerator(seed + dimension);
+            List<Board> sample = new ArrayList<Board>(boards);
+
+            for (int i = 0; i < boards; i++) {
+                sample.add(Boggle.buildBoard(generator.nextBoard(dimension)));
+            }
+
+            for (Entry entry : entries) {
+                if (dimension * dimension > entry.maxTiles) continue;
+
+                measure(entry, dimension, sample);
+            }
+        }
+    }
+
+    private void measure(Entry entry, int dimension, List<Board> sample) {
+        long warmupStart = System.nanoTime();
+
+        for (int i = 0; System.nanoTime() - warmupStart < WARMUP_NANOS; i++) {
+            entry.solver.solve(sample.get(i % sample.size()));
+        }
+
+        long[] latencies = new long[sample.size()];
+        int solved = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        while (solved < sample.size() && System.nanoTime() - start < MEASUREMENT_NANOS) {
+            long solveStart = System.nanoTime();
+            entry.solver.solve(sample.get(solved));
+            latencies[solved++] = System.nanoTime() - solveStart;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        latencies = Arrays.copyOf(latencies, solved);
+        Arrays.sort(latencies);
+
+        System.out.printf("%-28s %7s %10.0f %10.1f %10.1f %10.1f %10.1f %12d%n",
+            entry.name, dimension + "x" + dimension, solved / (elapsed / 1e9),
+            percentile(latencies, 50) / 1e3, percentile(latencies, 90) / 1e3, percentile(latencies, 99) / 1e3,
+            latencies[solved - 1] / 1e3, allocated / solved);
+    }
+
+    /*
+     * average cost of changing one random tile with IncrementalBoggleSolver against solving the changed board again
+     */
+    public static void runUpdates(Dawg dictionary, int[] sizes, int updates, long seed) {
+        IncrementalBoggleSolver incremental = new IncrementalBoggleSolver(dictionary);
+        BoggleSolver full = new GeneratePossibleWordsWithTrieCursorSolver(dictionary);
+
+        System.out.printf("%-28s %7s %12s %12s%n", "single tile update", "board", "update us", "re-solve us");
+
+        for (int dimension : sizes) {
+            RandomBoardGenerator generator = new RandomBoardGenerator(seed + dimension);
+            Random random = new Random(seed);
+            char[] tiles = generator.nextBoard(dimension).toCharArray();
+
+            incremental.solve(Boggle.buildBoard(new String(tiles)));
+            long updateNanos = 0, solveNanos = 0;
+
+            // the first half warms up
+            for (int i = 0; i < 2 * updates; i++) {
+                int cell = random.nextInt(tiles.length);
+                // a draw of the letter already there is no update, so draw until it changes
+                char letter;
+                do {
+                    letter = generator.nextLetter();
+                } while (letter == tiles[cell]);
+                tiles[cell] = letter;
+                Position position = new Position(cell / dimension, cell % dimension);
+                Board board = Boggle.buildBoard(new String(tiles));
+
+                long start = System.nanoTime();
+                incremental.setTile(position, String.valueOf(tiles[cell]));
+                long updated = System.nanoTime();
+                full.solve(board);
+                long solved = System.nanoTime();
+
+                if (i >= updates) {
+                    updateNanos += updated - start;
+                    solveNanos += solved - updated;
+                }
+            }
+
+            System.out.printf("%-28s %7s %12.1f %12.1f%n", "IncrementalBoggleSolver", dimension + "x" + dimension,
+                updateNanos / 1e3 / updates, solveNanos / 1e3 / updates);
+        }
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * percentile / 100))];
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) total += allocated;
+        }
+
+        return total;
+    }
+
+    private static int[] parseSizes(String sizes) {
+        String[] parts = sizes.split(",");
+        int[] result = new int[parts.length];
+
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+
+            if (result[i] < 1) throw new IllegalArgumentException("Board size " + result[i] + " is not positive");
+        }
+
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = parseSizes(args.length > 0 ? args[0] : "4,5,10,20,50");
+        int boards = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        if (boards < 1) throw new IllegalArgumentException("Boards per size must be positive, got " + boards);
+
+        long start = System.nanoTime();
+        List<String> words = WithDictionary.readDictionary(WithDictionary.DICTIONARY_FILE);
+        long read = System.nanoTime();
+        Dawg dawg = Dawg.build(words);
+        long built = System.nanoTime();
+        Trie trie = new Trie();
+
+        for (String word : words) {
+            trie.addWord(word);
+        }
+
+        long trieBuilt = System.nanoTime();
+
+        System.out.println("Dictionary load:");
+        System.out.printf("  read dict.txt      %8.1f ms%n", (read - start) / 1e6);
+        System.out.printf("  build Dawg         %8.1f ms%n", (built - read) / 1e6);
+        System.out.printf("  build Trie         %8.1f ms%n", (trieBuilt - built) / 1e6);
+
+        if (new File(Boggle.SNAPSHOT_FILE).exists()) {
+            long mapStart = System.nanoTime();
+            MappedDawg.load(Boggle.SNAPSHOT_FILE).isWord("a");
+            System.out.printf("  map %-14s %8.1f ms%n", Boggle.SNAPSHOT_FILE, (System.nanoTime() - mapStart) / 1e6);
+        }
+
+        System.out.println();
+
+        BoggleBenchmark benchmark = new BoggleBenchmark();
+        benchmark.add("TrieCursor", new GeneratePossibleWordsWithTrieCursorSolver(dawg), Integer.MAX_VALUE);
+        final GeneratePossibleWordsWithTrieCursorSolver cursor = new GeneratePossibleWordsWithTrieCursorSolver(dawg);
+        benchmark.add("TrieCursor (paths)", new BoggleSolver() {
+            public List<String> solve(Board board) {
+                return cursor.solveWithPaths(board).getWords();
+            }
+        }, Integer.MAX_VALUE);
+        benchmark.add("TrieCursor (no board prune)", new GeneratePossibleWordsWithTrieCursorSolver(dawg, false), Integer.MAX_VALUE);
+        benchmark.add("Pruning (Trie)", new GeneratePossibleWordsWithPruningSolver(trie), Integer.MAX_VALUE);
+        benchmark.add("Pruning (Dawg)", new GeneratePossibleWordsWithPruningSolver(dawg), Integer.MAX_VALUE);
+        benchmark.add("FindWordsFromDictionary", new FindWordsFromDictionarySolver(dawg), 400);
+        // enumerates every path, only practical on 4x4
+        benchmark.add("GeneratePossibleWords", new GeneratePossibleWordsSolver(dawg), 16);
+        benchmark.run(sizes, boards, seed);
+
+        System.out.println();
+        runUpdates(dawg, sizes, boards * 10, seed);
+    }
+}
@@ -0,0 +1,211 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Remembers the words found on recent boards in front of another solver. A board, its rotations
+ and its reflections hold the same words, so the cache key is the smallest of the 8 ways to read
+ the square grid, tile by tile as symbol ids of the dictionary's alphabet (so "q" and "qu" tiles
+ differ). Boards with a tile outside the alphabet are not cached. Words are stored as their index in the dictionary (see Dawg.indexOf) and the
+ least recently used boards are dropped once the estimated size of the cache passes maxBytes.
+
+ Safe to share between threads as long as the solver behind it is; two threads missing on the
+ same board at once both solve it.
+
+ With metrics a hit counts as a board with no search states, searched in the time of the lookup.
+ */
+class CachingBoggleSolver implements SearchMetrics.Measured {
+    // rough per entry cost of the map entry, the key String and the two array headers
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final BoggleSolver solver;
+    private final Dawg dictionary;
+    private final long maxBytes;
+    private final Map<String, int[]> results = new LinkedHashMap<String, int[]>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long usedBytes;
+
+    public CachingBoggleSolver(BoggleSolver solver, Dawg dictionary, long maxBytes) {
+        this.solver = solver;
+        this.dictionary = dictionary;
+        this.maxBytes = maxBytes;
+    }
+
+    public List<String> solve(Board board) {
+        return solve(board, null);
+    }
+
+    public List<String> solve(Board board, SearchMetrics metrics) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        char[] tileIds = tileIds(board);
+        String key = tileIds == null ? null : canonicalForm(tileIds);
+
+        if (key == null) return solveMiss(board, metrics);
+
+        int[] wordIds;
+
+        synchronized (results) {
+            wordIds = results.get(key);
+        }
+
+        if (wordIds != null) {
+            hits.incrementAndGet();
+            List<String> words = toWords(wordIds);
+
+            if (metrics != null) metrics.addSearch(1, 0, 0, 0, 0, System.nanoTime() - start);
+
+            return words;
+        }
+
+        misses.incrementAndGet();
+        List<String> foundWords = solveMiss(board, metrics);
+        wordIds = toWordIds(foundWords);
+
+        if (wordIds != null) put(key, wordIds);
+
+        return foundWords;
+    }
+
+    private List<String> solveMiss(Board board, SearchMetrics metrics) {
+        return metrics == null ? solver.solve(board) : SearchMetrics.solve(solver, board, metrics);
+    }
+
+    private void put(String key, int[] wordIds) {
+        long bytes = sizeOf(key, wordIds);
+
+        if (bytes > maxBytes) return;
+
+        synchronized (results) {
+            int[] previous = results.put(key, wordIds);
+
+            if (previous != null) usedBytes -= sizeOf(key, previous);
+
+            usedBytes += bytes;
+
+            // access order, so the first entries are the least recently used
+            Iterator<Map.Entry<String, int[]>> eldest = results.entrySet().iterator();
+
+            while (usedBytes > maxBytes) {
+                Map.Entry<String, int[]> entry = eldest.next();
+                usedBytes -= sizeOf(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    /*
+     * the symbol id of every tile, null when a tile is not a symbol of the alphabet
+     */
+    private char[] tileIds(Board board) {
+        Alphabet alphabet = dictionary.alphabet();
+        char[] ids = new char[board.size()];
+
+        for (int cell = 0; cell < ids.length; cell++) {
+            int id = board.isMultiCharacter() ? alphabet.id(board.getTile(cell)) : alphabet.id(board.getValues()[cell]);
+
+            if (id == Alphabet.NONE) return null;
+
+            ids[cell] = (char) id;
+        }
+
+        return ids;
+    }
+
+    /*
+     * null when a word is not in the dictionary, such a result is not cached
+     */
+    private int[] toWordIds(List<String> words) {
+        int[] wordIds = new int[words.size()];
+
+        for (int i = 0; i < wordIds.length; i++) {
+            wordIds[i] = dictionary.indexOf(words.get(i));
+
+            if (wordIds[i] == Dawg.NONE) return null;
+        }
+
+        return wordIds;
+    }
+
+    private List<String> toWords(int[] wordIds) {
+        List<String> words = new ArrayList<String>(wordIds.length);
+
+        for (int wordId : wordIds) {
+            words.add(dictionary.word(wordId));
+        }
+
+        return words;
+    }
+
+    private static long sizeOf(String key, int[] wordIds) {
+        return ENTRY_OVERHEAD + 2L * key.length() + 4L * wordIds.length;
+    }
+
+    /*
+     Smallest of the tile ids read row by row under each of the 8 symmetries of the square, or null
+     when the board is not square. Transform t reads cell (row, column) of the result from
+     (column, row) of the board when bit 2 is set, then mirrors the row for bit 1 and the
+     column for bit 0; these are the 4 rotations and 4 reflections.
+     */
+    static String canonicalForm(char[] tileIds) {
+        int dimension = (int) Math.sqrt(tileIds.length);
+
+        if (dimension * dimension != tileIds.length) return null;
+
+        char[] best = tileIds.clone();
+        char[] candidate = new char[tileIds.length];
+
+        for (int transform = 1; transform < 8; transform++) {
+            for (int row = 0; row < dimension; row++) {
+                for (int column = 0; column < dimension; column++) {
+                    int r = (transform & 4) != 0 ? column : row;
+                    int c = (transform & 4) != 0 ? row : column;
+
+                    if ((transform & 2) != 0) r = dimension - 1 - r;
+                    if ((transform & 1) != 0) c = dimension - 1 - c;
+
+                    candidate[row * dimension + column] = tileIds[r * dimension + c];
+                }
+            }
+
+            if (compare(candidate, best) < 0) {
+                char[] swap = best;
+                best = candidate;
+                candidate = swap;
+            }
+        }
+
+        return new String(best);
+    }
+
+    private static int compare(char[] a, char[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) return a[i] - b[i];
+        }
+
+        return 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    public long getUsedBytes() {
+        synchronized (results) {
+            return usedBytes;
+        }
+    }
+}
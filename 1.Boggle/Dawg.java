@@ -0,0 +1,374 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ Minimized word graph (shared prefixes and shared suffixes) stored in a single int array. Words
+ are sequences of Alphabet symbols, English letters unless another alphabet is given.
+
+ A node is the offset of its header inside the array:
+
+     data[node]                header: bit c is set when there is an edge for symbol c,
+                               TERMINAL is set when the path to this node spells a word
+     data[node + 1]            letters that every word completed below this node still needs
+     data[node + 2 + 2 * k]    target node of the k-th edge (edges are ordered by letter)
+     data[node + 3 + 2 * k]    number of words that precede the k-th edge in the node's subtree
+
+ Following an edge is a bit test and a popcount, and summing the edge ranks along a path gives
+ the position of the word in the sorted dictionary, so words can be identified by an int.
+
+ The array either lives on the heap (ArrayDawg) or is read in place from a snapshot file (MappedDawg).
+ */
+abstract class Dawg implements PrefixDictionary {
+    static final int NONE = -1;
+
+    protected static final int TERMINAL = 1 << 31;
+    protected static final int HEADER_SIZE = 2;
+
+    private final Alphabet alphabet;
+    private final int root;
+    private final int size;
+    private final int nodeCount;
+    private final int length;
+    // collected on the first call of words
+    private volatile List<String> words;
+
+    protected Dawg(Alphabet alphabet, int root, int size, int nodeCount, int length) {
+        this.alphabet = alphabet;
+        this.root = root;
+        this.size = size;
+        this.nodeCount = nodeCount;
+        this.length = length;
+    }
+
+    protected abstract int at(int index);
+
+    public static Dawg build(Collection<String> words) {
+        return build(words, Alphabet.ENGLISH);
+    }
+
+    /*
+     * words that cannot be split into symbols of the alphabet are left out
+     */
+    public static Dawg build(Collection<String> words, Alphabet alphabet) {
+        // sorted by symbol id, which is the order of the word indices
+        TreeSet<String> sorted = new TreeSet<String>();
+
+        for (String word : words) {
+            String symbols = alphabet.encode(word.toLowerCase());
+
+            if (symbols != null && !symbols.isEmpty()) {
+                sorted.add(symbols);
+            }
+        }
+
+        Builder builder = new Builder(alphabet, new ArrayList<String>(sorted));
+
+        return builder.build();
+    }
+
+    public Alphabet alphabet() {
+        return alphabet;
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public int edge(int node, int letter) {
+        if (letter < 0 || letter >= Alphabet.MAX_SIZE) return NONE;
+
+        int header = at(node);
+        int bit = 1 << letter;
+
+        if ((header & bit) == 0) return NONE;
+
+        return node + HEADER_SIZE + 2 * Integer.bitCount(header & (bit - 1));
+    }
+
+    public int target(int edge) {
+        return at(edge);
+    }
+
+    public int rank(int edge) {
+        return at(edge + 1);
+    }
+
+    public int child(int node, char c) {
+        int edge = edge(node, alphabet.id(c));
+
+        return edge == NONE ? NONE : at(edge);
+    }
+
+    public boolean isTerminal(int node) {
+        return (at(node) & TERMINAL) != 0;
+    }
+
+    /*
+     * bit c is set when every word below the node (not counting the path to it) contains symbol c,
+     * a board without one of these letters cannot complete any word from here
+     */
+    public int requiredLetters(int node) {
+        return at(node + 1);
+    }
+
+    public boolean hasPrefix(String prefix) {
+        return descend(prefix) != NONE;
+    }
+
+    public boolean isWord(String word) {
+        int node = descend(word);
+
+        return node != NONE && isTerminal(node);
+    }
+
+    private int descend(String word) {
+        if (!alphabet.isSingleCharacter()) {
+            String symbols = alphabet.encode(word);
+
+            return symbols == null ? NONE : descendSymbols(symbols);
+        }
+
+        int node = root;
+
+        for (int i = 0, sz = word.length(); i < sz && node != NONE; i++) {
+            node = child(node, word.charAt(i));
+        }
+
+        return node;
+    }
+
+    private int descendSymbols(String symbols) {
+        int node = root;
+
+        for (int i = 0, sz = symbols.length(); i < sz && node != NONE; i++) {
+            int edge = edge(node, symbols.charAt(i));
+            node = edge == NONE ? NONE : at(edge);
+        }
+
+        return node;
+    }
+
+    /*
+     * position of the word in the sorted dictionary or NONE
+     */
+    public int indexOf(String word) {
+        String symbols = alphabet.encode(word);
+
+        if (symbols == null) return NONE;
+
+        int node = root;
+        int index = 0;
+
+        for (int i = 0, sz = symbols.length(); i < sz; i++) {
+            int edge = edge(node, symbols.charAt(i));
+
+            if (edge == NONE) return NONE;
+
+            index += at(edge + 1);
+            node = at(edge);
+        }
+
+        return isTerminal(node) ? index : NONE;
+    }
+
+    public String word(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("No word with index " + index);
+
+        StringBuilder sb = new StringBuilder();
+        int node = root;
+
+        while (!(isTerminal(node) && index == 0)) {
+            int header = at(node);
+            int edge = NONE;
+            int letter = 0;
+
+            // the word is below the last edge whose rank does not exceed the index
+            for (int c = 0, k = 0; c < alphabet.size(); c++) {
+                if ((header & (1 << c)) == 0) continue;
+
+                int candidate = node + HEADER_SIZE + 2 * k++;
+
+                if (at(candidate + 1) > index) break;
+
+                edge = candidate;
+                letter = c;
+            }
+
+            index -= at(edge + 1);
+            sb.append(alphabet.symbol(letter));
+            node = at(edge);
+        }
+
+        return sb.toString();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long sizeInBytes() {
+        return 4L * length;
+    }
+
+    /*
+     * all words in index order, collected once and shared by every caller, so not modifiable
+     */
+    public List<String> words() {
+        List<String> words = this.words;
+
+        if (words == null) {
+            List<String> collected = new ArrayList<String>(size);
+            collectWords(root, new StringBuilder(), collected);
+            this.words = words = Collections.unmodifiableList(collected);
+        }
+
+        return words;
+    }
+
+    private void collectWords(int node, StringBuilder prefix, List<String> words) {
+        if (isTerminal(node)) {
+            words.add(prefix.toString());
+        }
+
+        int header = at(node);
+
+        for (int letter = 0, k = 0; letter < alphabet.size(); letter++) {
+            if ((header & (1 << letter)) == 0) continue;
+
+            int length = prefix.length();
+            prefix.append(alphabet.symbol(letter));
+            collectWords(at(node + HEADER_SIZE + 2 * k++), prefix, words);
+            prefix.setLength(length);
+        }
+    }
+
+    private static class Builder {
+        private final Alphabet alphabet;
+        // words as strings of symbol ids
+        private final List<String> words;
+        private final Map<Signature, Integer> registry = new HashMap<Signature, Integer>();
+        private int[] data = new int[1024];
+        private int[] wordCounts = new int[1024];
+        private int length = 0;
+
+        private Builder(Alphabet alphabet, List<String> words) {
+            this.alphabet = alphabet;
+            this.words = words;
+        }
+
+        private Dawg build() {
+            int root = words.isEmpty() ? append(new int[] {0, 0}, 0) : node(0, words.size(), 0);
+
+            return new ArrayDawg(alphabet, Arrays.copyOf(data, length), root, words.size(), Math.max(1, registry.size()));
+        }
+
+        /*
+         * words[from, to) share their first depth symbols, children are registered before
+         * their parent so every node only ever points to nodes that are already laid out
+         */
+        private int node(int from, int to, int depth) {
+            boolean terminal = words.get(from).length() == depth;
+            int first = terminal ? from + 1 : from;
+            int[] signature = new int[HEADER_SIZE + 2 * alphabet.size()];
+            int edges = 0;
+            int rank = terminal ? 1 : 0;
+            int required = terminal ? 0 : -1;
+
+            signature[0] = terminal ? TERMINAL : 0;
+
+            for (int groupFrom = first; groupFrom < to; ) {
+                char letter = words.get(groupFrom).charAt(depth);
+                int groupTo = groupFrom + 1;
+
+                while (groupTo < to && words.get(groupTo).charAt(depth) == letter) {
+                    groupTo++;
+                }
+
+                int child = node(groupFrom, groupTo, depth + 1);
+
+                signature[0] |= 1 << letter;
+                signature[HEADER_SIZE + 2 * edges] = child;
+                signature[HEADER_SIZE + 1 + 2 * edges] = rank;
+                required &= (1 << letter) | data[child + 1];
+                rank += wordCounts[child];
+                edges++;
+                groupFrom = groupTo;
+            }
+
+            signature[1] = required;
+
+            Signature key = new Signature(Arrays.copyOf(signature, HEADER_SIZE + 2 * edges));
+            Integer existing = registry.get(key);
+
+            if (existing != null) return existing;
+
+            int node = append(key.values, rank);
+            registry.put(key, node);
+
+            return node;
+        }
+
+        private int append(int[] values, int wordCount) {
+            if (length + values.length > data.length) {
+                int capacity = Math.max(2 * data.length, length + values.length);
+                data = Arrays.copyOf(data, capacity);
+                wordCounts = Arrays.copyOf(wordCounts, capacity);
+            }
+
+            int node = length;
+            System.arraycopy(values, 0, data, node, values.length);
+            wordCounts[node] = wordCount;
+            length += values.length;
+
+            return node;
+        }
+    }
+
+    private static class Signature {
+        private final int[] values;
+        private final int hashCode;
+
+        private Signature(int[] values) {
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Signature && Arrays.equals(values, ((Signature) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
+
+class ArrayDawg extends Dawg {
+    private final int[] data;
+
+    protected ArrayDawg(Alphabet alphabet, int[] data, int root, int size, int nodeCount) {
+        super(alphabet, root, size, nodeCount, data.length);
+        this.data = data;
+    }
+
+    @Override
+    protected int at(int index) {
+        return data[index];
+    }
+}
@@ -0,0 +1,22 @@
+import java.io.IOException;
+
+/*
+ Build step for the dictionary snapshot: java DawgCompiler [dict.txt] [dict.dawg] [alphabet]
+
+ The alphabet is English letters by default, "qu" for English with a single Qu tile, or the
+ symbols separated by commas (see Alphabet.parse). It is stored with the snapshot.
+ */
+class DawgCompiler {
+    public static void main(String[] args) throws IOException {
+        String dictionaryFile = args.length > 0 ? args[0] : WithDictionary.DICTIONARY_FILE;
+        String snapshotFile = args.length > 1 ? args[1] : Boggle.SNAPSHOT_FILE;
+        Alphabet alphabet = args.length > 2 ? Boggle.parseAlphabet(args[2]) : Alphabet.ENGLISH;
+
+        long start = System.nanoTime();
+        Dawg dawg = Dawg.build(WithDictionary.readDictionary(dictionaryFile), alphabet);
+        MappedDawg.save(dawg, snapshotFile);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Compiled " + dawg.size() + " words (" + dawg.nodeCount() + " nodes, " + dawg.sizeInBytes() + " bytes) into " + snapshotFile + " in " + elapsed / 1000000 + " ms");
+    }
+}
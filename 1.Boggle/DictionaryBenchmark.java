@@ -0,0 +1,142 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+/*
+ Compares the object-per-node Trie with the array backed Dawg on the shipped dictionary:
+ retained heap after building, build time and isWord / hasPrefix lookup throughput.
+ Then counts the search states the trie cursor solver enters on random boards with and
+ without board letter pruning.
+
+ Usage: java DictionaryBenchmark [dictionary file] [lookup rounds]
+ */
+class DictionaryBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        String fileName = args.length > 0 ? args[0] : WithDictionary.DICTIONARY_FILE;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> words = WithDictionary.readDictionary(fileName);
+        List<String> queries = buildQueries(words);
+
+        System.out.println("Dictionary: " + words.size() + " words, " + queries.size() + " queries per round");
+        System.out.println();
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Dawg dawg = Dawg.build(words);
+        long dawgBuild = System.nanoTime() - start;
+        long dawgHeap = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        start = System.nanoTime();
+        Trie trie = new Trie();
+
+        for (String word : words) {
+            trie.addWord(word);
+        }
+
+        long trieBuild = System.nanoTime() - start;
+        long trieHeap = usedHeap() - heapBefore;
+
+        report("Trie", trieHeap, trieBuild, trie, queries, rounds);
+        report("Dawg", dawgHeap, dawgBuild, dawg, queries, rounds);
+
+        System.out.println("Dawg nodes: " + dawg.nodeCount() + ", array size: " + dawg.sizeInBytes() + " bytes");
+        System.out.println();
+
+        for (int dimension = 4; dimension <= 6; dimension++) {
+            reportPruning(dawg, dimension, 2000);
+        }
+
+        // keep both structures reachable until the end of the measurement
+        if (trie.isWord("") || dawg.isWord("")) System.out.println();
+    }
+
+    private static List<String> buildQueries(List<String> words) {
+        Random random = new Random(42);
+        List<String> queries = new ArrayList<String>(2 * words.size());
+
+        for (String word : words) {
+            queries.add(word.toLowerCase());
+
+            // a misspelled variant, so that lookups also fail part way down
+            char[] chars = word.toLowerCase().toCharArray();
+            chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+            queries.add(new String(chars));
+        }
+
+        Collections.shuffle(queries, random);
+
+        return queries;
+    }
+
+    private static void report(String name, long heap, long buildTime, PrefixDictionary dictionary, List<String> queries, int rounds) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            lookup(dictionary, queries);
+        }
+
+        long start = System.nanoTime();
+        int hits = 0;
+
+        for (int i = 0; i < rounds; i++) {
+            hits += lookup(dictionary, queries);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long lookups = 2L * rounds * queries.size();
+
+        System.out.println(name + ":");
+        System.out.println("  retained heap:  " + heap / 1024 + " KB");
+        System.out.println("  build time:     " + buildTime / 1000000 + " ms");
+        System.out.println("  lookup time:    " + elapsed / lookups + " ns per lookup (" + hits + " hits)");
+        System.out.println();
+    }
+
+    private static void reportPruning(Dawg dawg, int dimension, int boards) {
+        GeneratePossibleWordsWithTrieCursorSolver plain = new GeneratePossibleWordsWithTrieCursorSolver(dawg, false);
+        GeneratePossibleWordsWithTrieCursorSolver pruned = new GeneratePossibleWordsWithTrieCursorSolver(dawg, true);
+        Random random = new Random(dimension);
+        SearchMetrics plainMetrics = new SearchMetrics(), prunedMetrics = new SearchMetrics();
+
+        for (int i = 0; i < boards; i++) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int j = 0; j < dimension * dimension; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+
+            Board board = Boggle.buildBoard(sb.toString());
+            plain.solve(board, plainMetrics);
+            pruned.solve(board, prunedMetrics);
+        }
+
+        long plainStates = plainMetrics.getStates(), prunedStates = prunedMetrics.getStates();
+
+        System.out.printf("%dx%d boards: %d states per board without board letter pruning, %d with it (%.1f%% fewer)%n",
+            dimension, dimension, plainStates / boards, prunedStates / boards, 100.0 * (plainStates - prunedStates) / plainStates);
+    }
+
+    private static int lookup(PrefixDictionary dictionary, List<String> queries) {
+        int hits = 0;
+
+        for (String query : queries) {
+            if (dictionary.isWord(query)) hits++;
+            if (dictionary.hasPrefix(query)) hits++;
+        }
+
+        return hits;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
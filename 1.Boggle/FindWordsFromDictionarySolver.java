@@ -1,85 +1,259 @@
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 class FindWordsFromDictionarySolver extends WithDictionary implements BoggleSolver {
+    private static final int WORDS_PER_TASK = 2048;
+
+    private final Candidates candidates;
+    private final ForkJoinPool pool;
+
+    public FindWordsFromDictionarySolver() {
+        this(null);
+    }
+
+    public FindWordsFromDictionarySolver(Dawg dictionary) {
+        this(dictionary, ForkJoinPool.commonPool());
+    }
+
+    public FindWordsFromDictionarySolver(Dawg dictionary, ForkJoinPool pool) {
+        this.candidates = dictionary == null ? null : new Candidates(dictionary.words());
+        this.pool = pool;
+    }
+
     public List<String> solve(Board board) {
-        List<String> words = readDictionary();
-        List<String> foundWords = new ArrayList<String>();
+        Candidates words = candidates == null ? new Candidates(readDictionary()) : candidates;
 
-        for (String word : words) {
-            if (findWord(word, board)) {
-                foundWords.add(word);
-            }
+        return pool.invoke(new FindWordsTask(words, new LetterCounts(board.getValues()), new BoardIndex(board), board, 0, words.size()));
+    }
+
+    private static class FindWordsTask extends RecursiveTask<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Candidates words;
+        private final LetterCounts boardCounts;
+        private final BoardIndex boardIndex;
+        private final Board board;
+        private final int from, to;
+
+        private FindWordsTask(Candidates words, LetterCounts boardCounts, BoardIndex boardIndex, Board board, int from, int to) {
+            this.words = words;
+            this.boardCounts = boardCounts;
+            this.boardIndex = boardIndex;
+            this.board = board;
+            this.from = from;
+            this.to = to;
         }
 
-        return foundWords;
-    }
+        @Override
+        protected List<String> compute() {
+            if (to - from > WORDS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                FindWordsTask left = new FindWordsTask(words, boardCounts, boardIndex, board, from, middle);
+                FindWordsTask right = new FindWordsTask(words, boardCounts, boardIndex, board, middle, to);
 
-    private boolean findWord(String word, Board board) {
-        List<Node> startingNodes = findStartingNodes(board, word);
+                left.fork();
+                List<String> foundWords = right.compute();
+                List<String> leftWords = left.join();
+                leftWords.addAll(foundWords);
 
-        for (Node startingNode : startingNodes) {
-            Set<Position> visited = new HashSet<Position>();
+                return leftWords;
+            }
 
-            visited.add(startingNode.getPosition());
+            List<String> foundWords = new ArrayList<String>();
+            boolean[] visited = new boolean[board.size()];
 
-            if (searchForWord(1, word, board, startingNode, visited)) {
-                return true;
+            for (int i = from; i < to; i++) {
+                if (words.fits(i, boardCounts) && boardIndex.hasPairs(words.get(i)) && findWord(words.get(i), boardIndex, board, visited)) {
+                    foundWords.add(words.get(i));
+                }
             }
-        }
 
-        return false;
+            return foundWords;
+        }
     }
 
-    private List<Node> findStartingNodes(Board board, String word) {
-        List<Node> startingNodes = new ArrayList<Node>();
+    private static boolean findWord(String word, BoardIndex boardIndex, Board board, boolean[] visited) {
+        char[] values = board.getValues();
+        int[] cells = boardIndex.cells;
+        int from = 0, to = cells.length;
 
-        for (Node node : board.getNodes()) {
-            if (node.getValue() == word.charAt(0)) {
-                startingNodes.add(node);
-            }
+        if (word.charAt(0) >= 'a' && word.charAt(0) <= 'z') {
+            from = boardIndex.offsets[word.charAt(0) - 'a'];
+            to = boardIndex.offsets[word.charAt(0) - 'a' + 1];
+        }
+
+        for (int i = from; i < to; i++) {
+            int cell = cells[i];
+
+            if (values[cell] != word.charAt(0)) continue;
+
+            visited[cell] = true;
+            boolean found = searchForWord(1, word, board, cell, visited);
+            visited[cell] = false;
+
+            if (found) return true;
         }
 
-        return startingNodes;
+        return false;
     }
 
-    private boolean searchForWord(int index, String word, Board board, Node currentNode, Set<Position> visited) {
+    private static boolean searchForWord(int index, String word, Board board, int cell, boolean[] visited) {
         if (index == word.length()) return true;
 
-        List<Node> neighbours = new ArrayList<Node>();
+        int[] adjacency = board.getAdjacency();
 
-        for (Position neighbour : currentNode.getNeighbours()) {
-            neighbours.add(positionToNode(neighbour, board));
+        for (int i = board.getAdjacencyOffsets()[cell], end = board.getAdjacencyOffsets()[cell + 1]; i < end; i++) {
+            int candidate = adjacency[i];
+
+            if (visited[candidate] || board.getValues()[candidate] != word.charAt(index)) continue;
+
+            visited[candidate] = true;
+            boolean found = searchForWord(index + 1, word, board, candidate, visited);
+            visited[candidate] = false;
+
+            if (found) return true;
         }
 
-        List<Node> candidates = new ArrayList<Node>();
+        return false;
+    }
+
+    /*
+     * dictionary words together with their letter histograms, built once per dictionary
+     */
+    private static class Candidates {
+        private final String[] words;
+        private final int[] masks;
+        private final long[] lows, highs;
 
-        for (Node candidate : neighbours) {
-            if (visited.contains(candidate.getPosition())) continue;
-            if (candidate.getValue() == word.charAt(index)) {
-                candidates.add(candidate);
+        private Candidates(List<String> words) {
+            this.words = words.toArray(new String[words.size()]);
+            this.masks = new int[this.words.length];
+            this.lows = new long[this.words.length];
+            this.highs = new long[this.words.length];
+
+            for (int i = 0; i < this.words.length; i++) {
+                LetterCounts counts = new LetterCounts(this.words[i].toCharArray());
+                masks[i] = counts.mask;
+                lows[i] = counts.low;
+                highs[i] = counts.high;
             }
         }
 
-        for (Node node : candidates) {
-            visited.add(node.getPosition());
-            if (searchForWord(index + 1, word, board, node, visited)) return true;
-            visited.remove(node.getPosition());
+        private int size() {
+            return words.length;
         }
 
-        return false;
+        private String get(int index) {
+            return words[index];
+        }
+
+        private boolean fits(int index, LetterCounts board) {
+            return LetterCounts.fits(masks[index], lows[index], highs[index], board);
+        }
     }
 
-    private Node positionToNode(Position position, Board board) {
-        for (Node node : board.getNodes()) {
-            if (position.equals(node.getPosition())) return node;
+    /*
+     * board cells grouped by letter (a-z first, then every other tile), so a word only starts from
+     * matching tiles, and for every letter the set of letters on tiles next to it
+     */
+    private static class BoardIndex {
+        private static final int GROUPS = 27;
+
+        private final int[] offsets = new int[GROUPS + 1];
+        private final int[] cells;
+        private final int[] followers = new int[GROUPS];
+
+        private BoardIndex(Board board) {
+            char[] values = board.getValues();
+            int[] next = new int[GROUPS];
+            cells = new int[values.length];
+
+            for (char value : values) {
+                offsets[letterOf(value) + 1]++;
+            }
+
+            for (int group = 0; group < GROUPS; group++) {
+                offsets[group + 1] += offsets[group];
+                next[group] = offsets[group];
+            }
+
+            for (int cell = 0; cell < values.length; cell++) {
+                cells[next[letterOf(values[cell])]++] = cell;
+
+                for (int i = board.getAdjacencyOffsets()[cell]; i < board.getAdjacencyOffsets()[cell + 1]; i++) {
+                    followers[letterOf(values[cell])] |= 1 << letterOf(values[board.getAdjacency()[i]]);
+                }
+            }
         }
 
-        assert (false); // should never happen
+        /*
+         * every two consecutive letters of the word have to sit on neighbouring tiles somewhere
+         */
+        private boolean hasPairs(String word) {
+            for (int i = 1, sz = word.length(); i < sz; i++) {
+                if ((followers[letterOf(word.charAt(i - 1))] & (1 << letterOf(word.charAt(i)))) == 0) return false;
+            }
+
+            return true;
+        }
 
-        return null;
+        private static int letterOf(char value) {
+            return value >= 'a' && value <= 'z' ? value - 'a' : 26;
+        }
     }
 
+    /*
+     Letter histogram packed four bits per letter: a..p in low, q..z in high. Counts are capped at 7
+     so that the top bit of every field is free, which lets fits compare all 26 counts at once:
+     (board | 8) - word keeps the top bit of a field exactly when the board count is at least the
+     word count, and no field can borrow from its neighbour. Capping only makes the filter weaker,
+     never wrong, since every word that passes is still searched for on the board.
+     */
+    private static class LetterCounts {
+        private static final long TOP_BITS = 0x8888888888888888L;
+
+        private final int mask;
+        private final long low, high;
+
+        private LetterCounts(char[] letters) {
+            int[] counts = new int[26];
+            int mask = 0;
+
+            for (char c : letters) {
+                // anything outside a-z sets every bit, so such a word only fits a board that has
+                // a tile outside a-z as well, and the full search decides there
+                if (c < 'a' || c > 'z') {
+                    mask = -1;
+                    continue;
+                }
+
+                int letter = c - 'a';
+
+                counts[letter] = Math.min(counts[letter] + 1, 7);
+                mask |= 1 << letter;
+            }
+
+            long low = 0, high = 0;
+
+            for (int letter = 0; letter < 16; letter++) {
+                low |= (long) counts[letter] << (4 * letter);
+            }
+
+            for (int letter = 16; letter < 26; letter++) {
+                high |= (long) counts[letter] << (4 * (letter - 16));
+            }
+
+            this.mask = mask;
+            this.low = low;
+            this.high = high;
+        }
+
+        private static boolean fits(int mask, long low, long high, LetterCounts board) {
+            return (mask & ~board.mask) == 0
+                && (((board.low | TOP_BITS) - low) & TOP_BITS) == TOP_BITS
+                && (((board.high | TOP_BITS) - high) & TOP_BITS) == TOP_BITS;
+        }
+    }
 }
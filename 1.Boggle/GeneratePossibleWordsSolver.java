@@ -1,50 +1,206 @@
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
 
+/*
+ Brute force baseline: every path on the board up to the length of the longest dictionary word is
+ looked up. The hash of the path is extended by one multiply-add per step and looked up in an open
+ addressing table of dictionary word hashes, so a step costs a few array reads instead of a String.
+
+ Given a ForkJoinPool, the search is split by starting tile (see ParallelStartingTiles).
+ */
 class GeneratePossibleWordsSolver extends WithDictionary implements BoggleSolver {
-    public List<String> solve(Board board) {
-        Set<String> words = new HashSet<String>(readDictionary());
-        Set<String> foundWords = new HashSet<String>();
+    private final WordTable table;
+    private final ForkJoinPool pool;
 
-        for (Node startingNode : board.getNodes()) {
-            Set<Position> visited = new HashSet<Position>();
-            visited.add(startingNode.getPosition());
-            findAll("" + startingNode.getValue(), startingNode, board, words, foundWords, visited);
-        }
+    public GeneratePossibleWordsSolver() {
+        this(null);
+    }
+
+    public GeneratePossibleWordsSolver(Dawg dictionary) {
+        this(dictionary, null);
+    }
+
+    public GeneratePossibleWordsSolver(Dawg dictionary, ForkJoinPool pool) {
+        this.table = dictionary == null ? null : new WordTable(dictionary.words());
+        this.pool = pool;
+    }
+
+    public List<String> solve(final Board board) {
+        final WordTable words = table == null ? new WordTable(readDictionary()) : table;
+
+        if (pool == null) return new Search(words, board).run();
 
-        return new ArrayList<String>(foundWords);
+        return ParallelStartingTiles.solve(pool, board, new ParallelStartingTiles.Search() {
+            public List<String> search(int start, int second) {
+                Search search = new Search(words, board);
+                search.runFrom(start, second);
+
+                return search.foundWords;
+            }
+        });
     }
 
-    private void findAll(String currentWord, Node currentNode, Board board, Set<String> words, Set<String> foundWords, Set<Position> visited) {
-        if (currentWord.length() > 20) return; // TODO: the limit should actually be the length of the longest word in the dictionary
+    private static class Search {
+        private final WordTable words;
+        private final char[] values;
+        private final int[] adjacencyOffsets;
+        private final int[] adjacency;
+        private final long[] visited;
+        private final char[] path;
+        private final BitSet found;
+        private final List<String> foundWords = new ArrayList<String>();
+
+        private Search(WordTable words, Board board) {
+            this.words = words;
+            this.values = board.getValues();
+            this.adjacencyOffsets = board.getAdjacencyOffsets();
+            this.adjacency = board.getAdjacency();
+            this.visited = new long[(board.size() + 63) / 64];
+            this.path = new char[Math.min(board.size(), words.maxLength)];
+            this.found = new BitSet();
+        }
+
+        private List<String> run() {
+            for (int cell = 0; cell < values.length; cell++) {
+                runFrom(cell, ParallelStartingTiles.NONE);
+            }
 
-        if (words.contains(currentWord)) {
-            foundWords.add(currentWord);
+            return foundWords;
         }
 
-        List<Node> neighbours = new ArrayList<Node>();
+        private void runFrom(int start, int second) {
+            if (path.length == 0) return;
+
+            if (second == ParallelStartingTiles.NONE) {
+                findAll(start, 0, 0);
+                return;
+            }
+
+            path[0] = values[start];
+            long hash = WordTable.extend(0, values[start]);
+            report(hash, 1);
 
-        for (Position neighbour : currentNode.getNeighbours()) {
-            neighbours.add(positionToNode(neighbour, board));
+            if (path.length == 1) return;
+
+            visited[start >>> 6] |= 1L << start;
+            findAll(second, hash, 1);
+            visited[start >>> 6] &= ~(1L << start);
         }
 
-        for (Node neighbour : neighbours) {
-            if (visited.contains(neighbour.getPosition())) continue;
-            visited.add(neighbour.getPosition());
-            findAll(currentWord + neighbour.getValue(), neighbour, board, words, foundWords, visited);
-            visited.remove(neighbour.getPosition());
+        private void findAll(int cell, long parentHash, int length) {
+            path[length] = values[cell];
+            long hash = WordTable.extend(parentHash, values[cell]);
+            report(hash, length + 1);
+
+            if (length + 1 == path.length) return;
+
+            visited[cell >>> 6] |= 1L << cell;
+
+            for (int i = adjacencyOffsets[cell], end = adjacencyOffsets[cell + 1]; i < end; i++) {
+                int next = adjacency[i];
+
+                if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+
+                findAll(next, hash, length + 1);
+            }
+
+            visited[cell >>> 6] &= ~(1L << cell);
+        }
+
+        private void report(long hash, int length) {
+            int index = words.indexOf(hash, path, length);
+
+            if (index != WordTable.NONE && !found.get(index)) {
+                found.set(index);
+                foundWords.add(words.get(index));
+            }
         }
     }
 
-    private Node positionToNode(Position position, Board board) {
-        for (Node node : board.getNodes()) {
-            if (position.equals(node.getPosition())) return node;
+    /*
+     * open addressing (linear probing) table from polynomial word hash to word index
+     */
+    private static class WordTable {
+        private static final int NONE = -1;
+        private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+        private final String[] words;
+        private final long[] hashes;
+        private final int[] indices;
+        private final int mask;
+        private final int maxLength;
+
+        private WordTable(List<String> words) {
+            int capacity = Integer.highestOneBit(Math.max(2, words.size()) * 2) * 2;
+            int maxLength = 0;
+
+            this.words = words.toArray(new String[words.size()]);
+            this.hashes = new long[capacity];
+            this.indices = new int[capacity];
+            this.mask = capacity - 1;
+
+            for (int i = 0; i < this.words.length; i++) {
+                String word = this.words[i];
+                char[] chars = word.toCharArray();
+                long hash = 0;
+
+                for (char c : chars) {
+                    hash = extend(hash, c);
+                }
+
+                if (word.isEmpty() || indexOf(hash, chars, chars.length) != NONE) continue;
+
+                int slot = slot(hash);
+
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                hashes[slot] = hash;
+                indices[slot] = i;
+                maxLength = Math.max(maxLength, chars.length);
+            }
+
+            this.maxLength = maxLength;
         }
 
-        assert (false); // should never happen
+        /*
+         * hash of the string extended by c, never 0 for a non-empty string since 0 marks empty slots
+         */
+        private static long extend(long hash, char c) {
+            long next = hash * MULTIPLIER + c + 1;
 
-        return null;
+            return next == 0 ? 1 : next;
+        }
+
+        private int slot(long hash) {
+            return (int) ((hash ^ (hash >>> 29)) * MULTIPLIER >>> 32) & mask;
+        }
+
+        private int indexOf(long hash, char[] chars, int length) {
+            for (int slot = slot(hash); hashes[slot] != 0; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && matches(words[indices[slot]], chars, length)) {
+                    return indices[slot];
+                }
+            }
+
+            return NONE;
+        }
+
+        private static boolean matches(String word, char[] chars, int length) {
+            if (word.length() != length) return false;
+
+            for (int i = 0; i < length; i++) {
+                if (word.charAt(i) != chars[i]) return false;
+            }
+
+            return true;
+        }
+
+        private String get(int index) {
+            return words[index];
+        }
     }
 }
@@ -2,53 +2,151 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+class GeneratePossibleWordsWithPruningSolver extends WithDictionary implements SearchMetrics.Measured {
+    private final PrefixDictionary dictionary;
+    private final ForkJoinPool pool;
+
+    public GeneratePossibleWordsWithPruningSolver() {
+        this(null);
+    }
+
+    public GeneratePossibleWordsWithPruningSolver(PrefixDictionary dictionary) {
+        this(dictionary, null);
+    }
+
+    /*
+     * with a pool the search is split by starting tile, see ParallelStartingTiles
+     */
+    public GeneratePossibleWordsWithPruningSolver(PrefixDictionary dictionary, ForkJoinPool pool) {
+        this.dictionary = dictionary;
+        this.pool = pool;
+    }
 
-class GeneratePossibleWordsWithPruningSolver extends WithDictionary implements BoggleSolver {
     public List<String> solve(Board board) {
-        Trie trie = new Trie();
+        return solve(board, null);
+    }
+
+    /*
+     * metrics may be null; pieces of a parallel search each have their own found words, so
+     * duplicates between pieces are not counted
+     */
+    public List<String> solve(final Board board, final SearchMetrics metrics) {
+        final PrefixDictionary trie = dictionary == null ? buildTrie(metrics) : dictionary;
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        if (pool != null) {
+            List<String> foundWords = ParallelStartingTiles.solve(pool, board, new ParallelStartingTiles.Search() {
+                public List<String> search(int start, int second) {
+                    Counts counts = new Counts();
+                    Set<String> foundWords = new HashSet<String>();
+                    findFrom(start, second, board, trie, foundWords, new boolean[board.size()], counts);
+
+                    if (metrics != null) counts.addTo(metrics, 0, 0);
+
+                    return new ArrayList<String>(foundWords);
+                }
+            });
+
+            if (metrics != null) metrics.addSearch(1, 0, 0, 0, 0, System.nanoTime() - start);
+
+            return foundWords;
+        }
+
+        Counts counts = new Counts();
         Set<String> foundWords = new HashSet<String>();
+        boolean[] visited = new boolean[board.size()];
+
+        for (int cell = 0, sz = board.size(); cell < sz; cell++) {
+            findFrom(cell, ParallelStartingTiles.NONE, board, trie, foundWords, visited, counts);
+        }
+
+        if (metrics != null) counts.addTo(metrics, 1, System.nanoTime() - start);
+
+        return new ArrayList<String>(foundWords);
+    }
+
+    private Trie buildTrie(SearchMetrics metrics) {
+        long start = System.nanoTime();
+        Trie trie = new Trie();
 
         for (String word : readDictionary()) {
             trie.addWord(word);
         }
 
-        for (Node startingNode : board.getNodes()) {
-            Set<Position> visited = new HashSet<Position>();
-            visited.add(startingNode.getPosition());
-            findAll("" + startingNode.getValue(), startingNode, board, trie, foundWords, visited);
-        }
+        if (metrics != null) metrics.addLoad(System.nanoTime() - start);
 
-        return new ArrayList<String>(foundWords);
+        return trie;
     }
 
-    private void findAll(String currentWord, Node currentNode, Board board, Trie trie, Set<String> foundWords, Set<Position> visited) {
-        if (!trie.hasPrefix(currentWord)) return;
+    /*
+     * the SearchMetrics counters of one search
+     */
+    private static class Counts {
+        private long states, prunes, hits, duplicates;
 
-        if (trie.isWord(currentWord)) {
-            foundWords.add(currentWord);
+        private void addTo(SearchMetrics metrics, long boards, long searchNanos) {
+            metrics.addSearch(boards, states, prunes, hits, duplicates, searchNanos);
         }
 
-        List<Node> neighbours = new ArrayList<Node>();
+        private void found(String word, Set<String> foundWords) {
+            hits++;
 
-        for (Position neighbour : currentNode.getNeighbours()) {
-            neighbours.add(positionToNode(neighbour, board));
+            if (!foundWords.add(word)) duplicates++;
         }
+    }
+
+    private void findFrom(int start, int second, Board board, PrefixDictionary trie, Set<String> foundWords, boolean[] visited, Counts counts) {
+        String currentWord = "" + board.getValues()[start];
+        visited[start] = true;
+
+        if (second == ParallelStartingTiles.NONE) {
+            findAll(currentWord, start, board, trie, foundWords, visited, counts);
+        } else {
+            // every pair of a start tile enters it, only the pair with its first neighbour counts it
+            boolean counted = second == board.getAdjacency()[board.getAdjacencyOffsets()[start]];
 
-        for (Node neighbour : neighbours) {
-            if (visited.contains(neighbour.getPosition())) continue;
-            visited.add(neighbour.getPosition());
-            findAll(currentWord + neighbour.getValue(), neighbour, board, trie, foundWords, visited);
-            visited.remove(neighbour.getPosition());
+            if (trie.hasPrefix(currentWord)) {
+                if (counted) counts.states++;
+
+                if (trie.isWord(currentWord) && counted) {
+                    counts.found(currentWord, foundWords);
+                }
+
+                visited[second] = true;
+                findAll(currentWord + board.getValues()[second], second, board, trie, foundWords, visited, counts);
+                visited[second] = false;
+            } else if (counted) {
+                counts.prunes++;
+            }
         }
+
+        visited[start] = false;
     }
 
-    private Node positionToNode(Position position, Board board) {
-        for (Node node : board.getNodes()) {
-            if (position.equals(node.getPosition())) return node;
+    private void findAll(String currentWord, int cell, Board board, PrefixDictionary trie, Set<String> foundWords, boolean[] visited, Counts counts) {
+        if (!trie.hasPrefix(currentWord)) {
+            counts.prunes++;
+
+            return;
+        }
+
+        counts.states++;
+
+        if (trie.isWord(currentWord)) {
+            counts.found(currentWord, foundWords);
         }
 
-        assert (false); // should never happen
+        int[] adjacency = board.getAdjacency();
 
-        return null;
+        for (int i = board.getAdjacencyOffsets()[cell], end = board.getAdjacencyOffsets()[cell + 1]; i < end; i++) {
+            int neighbour = adjacency[i];
+
+            if (visited[neighbour]) continue;
+            visited[neighbour] = true;
+            findAll(currentWord + board.getValues()[neighbour], neighbour, board, trie, foundWords, visited, counts);
+            visited[neighbour] = false;
+        }
     }
 }
@@ -0,0 +1,285 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ Same search as GeneratePossibleWordsWithPruningSolver, but the dictionary is walked one edge per
+ board step instead of re-descending from the root for every prefix. Visited cells live in a long
+ bitmask, the current word in a reused char array, and found words are tracked by dictionary index,
+ so the only allocations in the search are the strings of newly found words.
+
+ With board letter pruning the search does not enter a dictionary node whose required letters
+ (see Dawg.requiredLetters) are not all on the board.
+
+ Given a ForkJoinPool, the search is split by starting tile (see ParallelStartingTiles).
+
+ solveWithPaths also reports one path per word. The cells of the current path are kept in a reused
+ array next to the current word and only copied out when a new word is found.
+
+ The search always keeps its SearchMetrics counters, they are only read when metrics are asked for.
+ */
+class GeneratePossibleWordsWithTrieCursorSolver extends WithDictionary implements SearchMetrics.Measured {
+    private final Dawg dictionary;
+    private final boolean boardLetterPruning;
+    private final ForkJoinPool pool;
+
+    public GeneratePossibleWordsWithTrieCursorSolver() {
+        this(null);
+    }
+
+    public GeneratePossibleWordsWithTrieCursorSolver(Dawg dictionary) {
+        this(dictionary, true);
+    }
+
+    public GeneratePossibleWordsWithTrieCursorSolver(Dawg dictionary, boolean boardLetterPruning) {
+        this(dictionary, boardLetterPruning, null);
+    }
+
+    public GeneratePossibleWordsWithTrieCursorSolver(Dawg dictionary, ForkJoinPool pool) {
+        this(dictionary, true, pool);
+    }
+
+    public GeneratePossibleWordsWithTrieCursorSolver(Dawg dictionary, boolean boardLetterPruning, ForkJoinPool pool) {
+        this.dictionary = dictionary;
+        this.boardLetterPruning = boardLetterPruning;
+        this.pool = pool;
+    }
+
+    public List<String> solve(Board board) {
+        return solve(board, null);
+    }
+
+    /*
+     * metrics may be null; pieces of a parallel search each have their own found words, so
+     * duplicates between pieces are not counted
+     */
+    public List<String> solve(final Board board, final SearchMetrics metrics) {
+        final Dawg dawg = dictionary(metrics);
+        long start = metrics == null ? 0 : System.nanoTime();
+
+        if (pool == null) {
+            Search search = new Search(dawg, board, boardLetterPruning, true);
+            search.run();
+
+            if (metrics != null) search.addTo(metrics, 1, System.nanoTime() - start);
+
+            return search.foundWords;
+        }
+
+        List<String> foundWords = ParallelStartingTiles.solve(pool, board, new ParallelStartingTiles.Search() {
+            public List<String> search(int start, int second) {
+                Search search = new Search(dawg, board, boardLetterPruning, true);
+                search.runFrom(start, second);
+
+                if (metrics != null) search.addTo(metrics, 0, 0);
+
+                return search.foundWords;
+            }
+        });
+
+        if (metrics != null) metrics.addSearch(1, 0, 0, 0, 0, System.nanoTime() - start);
+
+        return foundWords;
+    }
+
+    private Dawg dictionary(SearchMetrics metrics) {
+        if (dictionary != null) return dictionary;
+
+        long start = System.nanoTime();
+        Dawg dawg = Dawg.build(readDictionary());
+
+        if (metrics != null) metrics.addLoad(System.nanoTime() - start);
+
+        return dawg;
+    }
+
+    /*
+     * the found words with one path each, always searched on the calling thread
+     */
+    public WordPaths solveWithPaths(Board board) {
+        Dawg dawg = dictionary == null ? Dawg.build(readDictionary()) : dictionary;
+        Search search = new Search(dawg, board, boardLetterPruning, true);
+        search.paths = new WordPaths();
+        search.run();
+
+        return search.paths;
+    }
+
+    /*
+     * Boggle score of the words on the board (see Boggle.score), without building the words
+     */
+    int score(Board board) {
+        Dawg dawg = dictionary == null ? Dawg.build(readDictionary()) : dictionary;
+        Search search = new Search(dawg, board, boardLetterPruning, false);
+        search.run();
+
+        return search.score;
+    }
+
+    private static class Search {
+        private final Dawg dawg;
+        private final char[] values;
+        private final int[] letters;
+        private final int[] adjacencyOffsets;
+        private final int[] adjacency;
+        private final long[] visited;
+        // symbol ids of the current word, see Alphabet.decode
+        private final char[] word;
+        private final int[] route;
+        private final BitSet found;
+        private final int missingLetters;
+        private final boolean collectWords;
+        private final List<String> foundWords = new ArrayList<String>();
+        private WordPaths paths;
+        private long states = 0;
+        private long prunes = 0;
+        private long hits = 0;
+        private long duplicates = 0;
+        private int score = 0;
+
+        private Search(Dawg dawg, Board board, boolean boardLetterPruning, boolean collectWords) {
+            this.dawg = dawg;
+            this.collectWords = collectWords;
+            this.values = board.getValues();
+            this.letters = new int[board.size()];
+            this.adjacencyOffsets = board.getAdjacencyOffsets();
+            this.adjacency = board.getAdjacency();
+            this.visited = new long[(board.size() + 63) / 64];
+            this.word = new char[board.size()];
+            this.route = new int[board.size()];
+            this.found = new BitSet();
+
+            Alphabet alphabet = dawg.alphabet();
+            boolean wholeTiles = board.isMultiCharacter() || !alphabet.isSingleCharacter();
+            int boardLetters = 0;
+
+            for (int cell = 0; cell < values.length; cell++) {
+                letters[cell] = wholeTiles ? alphabet.id(board.getTile(cell)) : alphabet.id(values[cell]);
+
+                if (letters[cell] != Alphabet.NONE) {
+                    boardLetters |= 1 << letters[cell];
+                }
+            }
+
+            this.missingLetters = boardLetterPruning ? ~boardLetters : 0;
+        }
+
+        private void run() {
+            for (int cell = 0; cell < values.length; cell++) {
+                runFrom(cell, ParallelStartingTiles.NONE);
+            }
+        }
+
+        private void runFrom(int start, int second) {
+            if (second == ParallelStartingTiles.NONE) {
+                int edge = follow(dawg.root(), start);
+
+                if (edge == Dawg.NONE) return;
+
+                word[0] = (char) letters[start];
+                route[0] = start;
+                findAll(start, dawg.target(edge), dawg.rank(edge), 1);
+                return;
+            }
+
+            // every pair of a start tile enters it, only the pair with its first neighbour counts it
+            boolean counted = second == adjacency[adjacencyOffsets[start]];
+            int edge = edge(dawg.root(), start);
+
+            if (edge == Dawg.NONE) {
+                if (counted) prunes++;
+
+                return;
+            }
+
+            word[0] = (char) letters[start];
+            route[0] = start;
+
+            int node = dawg.target(edge);
+            int rank = dawg.rank(edge);
+            int nextEdge = follow(node, second);
+
+            if (counted) {
+                states++;
+                report(node, rank, 1);
+            }
+
+            if (nextEdge == Dawg.NONE) return;
+
+            visited[start >>> 6] |= 1L << start;
+            word[1] = (char) letters[second];
+            route[1] = second;
+            findAll(second, dawg.target(nextEdge), rank + dawg.rank(nextEdge), 2);
+            visited[start >>> 6] &= ~(1L << start);
+        }
+
+        private void findAll(int cell, int node, int rank, int length) {
+            states++;
+            report(node, rank, length);
+            visited[cell >>> 6] |= 1L << cell;
+
+            for (int i = adjacencyOffsets[cell], end = adjacencyOffsets[cell + 1]; i < end; i++) {
+                int next = adjacency[i];
+
+                if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+
+                int edge = follow(node, next);
+
+                if (edge == Dawg.NONE) continue;
+
+                word[length] = (char) letters[next];
+                route[length] = next;
+                findAll(next, dawg.target(edge), rank + dawg.rank(edge), length + 1);
+            }
+
+            visited[cell >>> 6] &= ~(1L << cell);
+        }
+
+        /*
+         * edge from node for the letter on cell, NONE when there is none or the board cannot complete a word below it
+         */
+        private int follow(int node, int cell) {
+            int edge = edge(node, cell);
+
+            if (edge == Dawg.NONE) prunes++;
+
+            return edge;
+        }
+
+        /*
+         * follow without counting a prune
+         */
+        private int edge(int node, int cell) {
+            int edge = dawg.edge(node, letters[cell]);
+
+            if (edge == Dawg.NONE || (dawg.requiredLetters(dawg.target(edge)) & missingLetters) != 0) return Dawg.NONE;
+
+            return edge;
+        }
+
+        private void report(int node, int rank, int length) {
+            if (!dawg.isTerminal(node)) return;
+
+            hits++;
+
+            if (found.get(rank)) {
+                duplicates++;
+            } else {
+                found.set(rank);
+
+                if (paths != null) {
+                    paths.add(dawg.alphabet().decode(word, length), route, length);
+                } else if (collectWords) {
+                    foundWords.add(dawg.alphabet().decode(word, length));
+                } else {
+                    score += Boggle.score(dawg.alphabet().textLength(word, length));
+                }
+            }
+        }
+
+        private void addTo(SearchMetrics metrics, long boards, long searchNanos) {
+            metrics.addSearch(boards, states, prunes, hits, duplicates, searchNanos);
+        }
+    }
+}
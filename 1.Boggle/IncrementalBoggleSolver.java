@@ -0,0 +1,368 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ Keeps the words of one board up to date while its tiles change one at a time.
+
+ Every path on the board that spells a dictionary word is kept as a path id with the word it
+ spells, and every tile keeps the ids of the paths through it. A word is on the board while at
+ least one of its paths is alive. When a tile changes, the paths in its list die and only the
+ paths through the new tile are searched for; the rest of the board is not looked at.
+
+ A path through tile t is u1 .. uk t v1 .. vm. It is found by first walking back from t over
+ u_k .. u_1 in a second graph holding every dictionary prefix reversed, where an edge only exists
+ while u_i .. t is still part of some word and a terminal node means u_1 .. t is a word prefix,
+ and then walking forward from t over v_1 .. v_m in the dictionary itself. Every path through t
+ is split at t in exactly one way, so every path is found once.
+
+ Dead path ids stay in the lists of the other tiles on the path and are dropped (and the ids
+ renumbered) once there are more dead paths than live ones.
+
+ Tiles are read whole (see Board.getTile) as symbols of the dictionary's alphabet; a tile that is
+ not one of them is on no path.
+
+ The solver owns a copy of the tiles; the Board passed to solve only provides the layout.
+ Not thread safe, use one solver per board.
+ */
+class IncrementalBoggleSolver implements BoggleSolver {
+    private final Dawg dictionary;
+    private final Dawg reversedPrefixes;
+    private static final int DEAD = -1;
+
+    private final int[] pathCounts;
+    private final BitSet found = new BitSet();
+    private final int[] wordScores;
+    private int score;
+
+    // word of every path id, DEAD once a tile on it changed
+    private int[] pathWords = new int[1024];
+    private int paths;
+    private int deadPaths;
+    // ids of the paths through each tile
+    private int[][] tilePaths;
+    private int[] tilePathCounts;
+
+    private Map<Position, Integer> cells;
+    // symbol id of every tile, Alphabet.NONE for tiles outside the alphabet
+    private int[] letters;
+    private int[] adjacencyOffsets;
+    private int[] adjacency;
+    private long[] visited;
+    private int[] path;
+    private int prefixLength;
+    private int[] route;
+    private final int[] letterCounts;
+    private int missingLetters;
+
+    public IncrementalBoggleSolver(Dawg dictionary) {
+        this(dictionary, reversedPrefixes(dictionary));
+    }
+
+    /*
+     * reversedPrefixes(dictionary) can be built once and shared by solvers on different threads
+     */
+    public IncrementalBoggleSolver(Dawg dictionary, Dawg reversedPrefixes) {
+        List<String> words = dictionary.words();
+
+        this.dictionary = dictionary;
+        this.reversedPrefixes = reversedPrefixes;
+        this.pathCounts = new int[dictionary.size()];
+        this.wordScores = new int[dictionary.size()];
+        this.letterCounts = new int[dictionary.alphabet().size()];
+
+        for (int i = 0; i < wordScores.length; i++) {
+            wordScores[i] = Boggle.score(words.get(i));
+        }
+    }
+
+    /*
+     * every prefix of every word, reversed symbol by symbol, in the alphabet of the dictionary
+     */
+    static Dawg reversedPrefixes(Dawg dictionary) {
+        Alphabet alphabet = dictionary.alphabet();
+        List<String> prefixes = new ArrayList<String>();
+
+        for (String word : dictionary.words()) {
+            String symbols = alphabet.encode(word);
+            char[] reversed = new char[symbols.length()];
+
+            for (int length = 1; length <= symbols.length(); length++) {
+                for (int i = 0; i < length; i++) {
+                    reversed[i] = symbols.charAt(length - 1 - i);
+                }
+
+                prefixes.add(alphabet.decode(reversed, length));
+            }
+        }
+
+        return Dawg.build(prefixes, alphabet);
+    }
+
+    /*
+     * solves the board from scratch and starts tracking it
+     */
+    public List<String> solve(Board board) {
+        letters = new int[board.size()];
+        adjacencyOffsets = board.getAdjacencyOffsets();
+        adjacency = board.getAdjacency();
+        visited = new long[(letters.length + 63) / 64];
+        path = new int[letters.length];
+        route = new int[letters.length];
+        tilePaths = new int[letters.length][];
+        tilePathCounts = new int[letters.length];
+        paths = 0;
+        deadPaths = 0;
+        prefixLength = 0;
+        cells = new HashMap<Position, Integer>();
+
+        for (int cell = 0; cell < letters.length; cell++) {
+            cells.put(board.getNodes().get(cell).getPosition(), cell);
+            tilePaths[cell] = new int[4];
+        }
+
+        Arrays.fill(pathCounts, 0);
+        Arrays.fill(letterCounts, 0);
+        found.clear();
+        score = 0;
+        missingLetters = -1;
+
+        for (int cell = 0; cell < letters.length; cell++) {
+            letters[cell] = dictionary.alphabet().id(board.getTile(cell));
+            addLetter(letters[cell], 1);
+        }
+
+        for (int cell = 0; cell < letters.length; cell++) {
+            forward(cell, dictionary.root(), 0, 0);
+        }
+
+        return getWords();
+    }
+
+    /*
+     * changes one tile of the board passed to the last solve to tile, a symbol of the dictionary's
+     * alphabet, and updates the words
+     */
+    public void setTile(Position position, String tile) {
+        Integer cell = cells == null ? null : cells.get(position);
+
+        if (cell == null) throw new IllegalArgumentException("No tile at " + position.getRow() + ", " + position.getColumn());
+
+        int letter = dictionary.alphabet().id(tile);
+
+        if (letters[cell] == letter) return;
+
+        removePaths(cell);
+        addLetter(letters[cell], -1);
+        letters[cell] = letter;
+        addLetter(letter, 1);
+        backward(cell, reversedPrefixes.root(), 0);
+
+        if (deadPaths > paths - deadPaths) compact();
+    }
+
+    public List<String> getWords() {
+        List<String> words = new ArrayList<String>(found.cardinality());
+
+        for (int index = found.nextSetBit(0); index >= 0; index = found.nextSetBit(index + 1)) {
+            words.add(dictionary.word(index));
+        }
+
+        return words;
+    }
+
+    public int getWordCount() {
+        return found.cardinality();
+    }
+
+    /*
+     * Boggle score of the words on the board (see Boggle.score)
+     */
+    public int getScore() {
+        return score;
+    }
+
+    private void addLetter(int letter, int delta) {
+        if (letter == Alphabet.NONE) return;
+
+        letterCounts[letter] += delta;
+
+        if (letterCounts[letter] == 0) {
+            missingLetters |= 1 << letter;
+        } else {
+            missingLetters &= ~(1 << letter);
+        }
+    }
+
+    private void removePaths(int cell) {
+        int[] ids = tilePaths[cell];
+
+        for (int i = 0, sz = tilePathCounts[cell]; i < sz; i++) {
+            int word = pathWords[ids[i]];
+
+            if (word == DEAD) continue;
+
+            pathWords[ids[i]] = DEAD;
+            deadPaths++;
+
+            if (--pathCounts[word] == 0) {
+                found.clear(word);
+                score -= wordScores[word];
+            }
+        }
+
+        tilePathCounts[cell] = 0;
+    }
+
+    /*
+     * path[0 .. length] walks back from the changed tile (path[0]) to cell
+     */
+    private void backward(int cell, int parent, int length) {
+        if (letters[cell] == Alphabet.NONE) return;
+
+        int edge = reversedPrefixes.edge(parent, letters[cell]);
+
+        if (edge == Dawg.NONE) return;
+
+        int node = reversedPrefixes.target(edge);
+
+        if ((reversedPrefixes.requiredLetters(node) & missingLetters) != 0) return;
+
+        path[length] = cell;
+        visited[cell >>> 6] |= 1L << cell;
+
+        if (reversedPrefixes.isTerminal(node)) {
+            completeFrom(length);
+        }
+
+        for (int i = adjacencyOffsets[cell], end = adjacencyOffsets[cell + 1]; i < end; i++) {
+            int next = adjacency[i];
+
+            if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+
+            backward(next, node, length + 1);
+        }
+
+        visited[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /*
+     * path[length] .. path[0] spells a word prefix, count the words that continue it past path[0]
+     */
+    private void completeFrom(int length) {
+        int node = dictionary.root();
+        int rank = 0;
+
+        for (int i = length; i > 0; i--) {
+            int edge = dictionary.edge(node, letters[path[i]]);
+            node = dictionary.target(edge);
+            rank += dictionary.rank(edge);
+        }
+
+        // path[0] itself is entered by forward, which marks it visited again
+        visited[path[0] >>> 6] &= ~(1L << path[0]);
+        prefixLength = length;
+        forward(path[0], node, rank, 0);
+        visited[path[0] >>> 6] |= 1L << path[0];
+    }
+
+    /*
+     * route[0 .. depth] is the path from the changed tile (or the start tile on a full solve) to cell
+     */
+    private void forward(int cell, int parent, int parentRank, int depth) {
+        if (letters[cell] == Alphabet.NONE) return;
+
+        int edge = dictionary.edge(parent, letters[cell]);
+
+        if (edge == Dawg.NONE) return;
+
+        int node = dictionary.target(edge);
+        int rank = parentRank + dictionary.rank(edge);
+
+        if ((dictionary.requiredLetters(node) & missingLetters) != 0) return;
+
+        route[depth] = cell;
+
+        if (dictionary.isTerminal(node)) addPath(rank, depth);
+
+        visited[cell >>> 6] |= 1L << cell;
+
+        for (int i = adjacencyOffsets[cell], end = adjacencyOffsets[cell + 1]; i < end; i++) {
+            int next = adjacency[i];
+
+            if ((visited[next >>> 6] & (1L << next)) != 0) continue;
+
+            forward(next, node, rank, depth + 1);
+        }
+
+        visited[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /*
+     * the path path[prefixLength] .. path[1], route[0] .. route[depth] spells the word with this index
+     */
+    private void addPath(int word, int depth) {
+        if (paths == pathWords.length) pathWords = Arrays.copyOf(pathWords, 2 * paths);
+
+        int id = paths++;
+        pathWords[id] = word;
+
+        if (pathCounts[word]++ == 0) {
+            found.set(word);
+            score += wordScores[word];
+        }
+
+        for (int i = 1; i <= prefixLength; i++) {
+            addTilePath(path[i], id);
+        }
+
+        for (int i = 0; i <= depth; i++) {
+            addTilePath(route[i], id);
+        }
+    }
+
+    private void addTilePath(int cell, int id) {
+        if (tilePathCounts[cell] == tilePaths[cell].length) {
+            tilePaths[cell] = Arrays.copyOf(tilePaths[cell], 2 * tilePathCounts[cell]);
+        }
+
+        tilePaths[cell][tilePathCounts[cell]++] = id;
+    }
+
+    /*
+     * drops the dead paths and renumbers the live ones from 0
+     */
+    private void compact() {
+        int[] ids = new int[paths];
+        int live = 0;
+
+        for (int id = 0; id < paths; id++) {
+            if (pathWords[id] == DEAD) {
+                ids[id] = DEAD;
+                continue;
+            }
+
+            ids[id] = live;
+            pathWords[live++] = pathWords[id];
+        }
+
+        for (int cell = 0; cell < letters.length; cell++) {
+            int[] list = tilePaths[cell];
+            int size = 0;
+
+            for (int i = 0, sz = tilePathCounts[cell]; i < sz; i++) {
+                if (ids[list[i]] == DEAD) continue;
+
+                list[size++] = ids[list[i]];
+            }
+
+            tilePathCounts[cell] = size;
+        }
+
+        paths = live;
+        deadPaths = 0;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+
+/*
+ Dictionary that can change while solvers are reading it.
+
+ Readers take the current Snapshot, an immutable Dawg with a version number, from a volatile field
+ and never lock; a solve that holds on to one snapshot sees one consistent word list from start to
+ end. Writers are serialized on the dictionary: an update is applied to the writer's own word set,
+ a new Dawg is built from it and then published with a single volatile write, so readers see either
+ all of a batch or none of it.
+
+ Every update that changes something builds and minimizes the Dawg of the whole word set again, so
+ its cost grows with the size of the dictionary, not of the change: about as much as building the
+ Dawg from dict.txt. Changes should be batched through update where possible.
+ */
+class LiveDictionary implements PrefixDictionary {
+    // guarded by this
+    private final TreeSet<String> words = new TreeSet<String>();
+    private volatile Snapshot current;
+
+    static class Snapshot {
+        private final long version;
+        private final Dawg dictionary;
+
+        private Snapshot(long version, Dawg dictionary) {
+            this.version = version;
+            this.dictionary = dictionary;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Dawg getDictionary() {
+            return dictionary;
+        }
+    }
+
+    public LiveDictionary(Collection<String> words) {
+        for (String word : words) {
+            this.words.add(word.toLowerCase());
+        }
+
+        this.current = new Snapshot(0, Dawg.build(this.words));
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.version;
+    }
+
+    public boolean hasPrefix(String prefix) {
+        return current.dictionary.hasPrefix(prefix);
+    }
+
+    public boolean isWord(String word) {
+        return current.dictionary.isWord(word);
+    }
+
+    public long add(String word) {
+        return update(Collections.singleton(word), Collections.<String>emptySet());
+    }
+
+    public long remove(String word) {
+        return update(Collections.<String>emptySet(), Collections.singleton(word));
+    }
+
+    /*
+     * removes and then adds the given words as one change, returns the version that contains it
+     */
+    public synchronized long update(Collection<String> added, Collection<String> removed) {
+        boolean changed = false;
+
+        for (String word : removed) {
+            changed |= words.remove(word.toLowerCase());
+        }
+
+        for (String word : added) {
+            changed |= words.add(word.toLowerCase());
+        }
+
+        if (!changed) return current.version;
+
+        current = new Snapshot(current.version + 1, Dawg.build(words));
+
+        return current.version;
+    }
+}
@@ -0,0 +1,21 @@
+import java.util.List;
+
+/*
+ Solves every board against the snapshot of the LiveDictionary that is current when the solve
+ starts, so concurrent updates never show up halfway through a board.
+ */
+class LiveDictionarySolver implements BoggleSolver {
+    private final LiveDictionary dictionary;
+
+    public LiveDictionarySolver(LiveDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public List<String> solve(Board board) {
+        return solve(board, dictionary.snapshot());
+    }
+
+    public List<String> solve(Board board, LiveDictionary.Snapshot snapshot) {
+        return new GeneratePossibleWordsWithTrieCursorSolver(snapshot.getDictionary()).solve(board);
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ Stress run for LiveDictionary: writer threads keep adding and removing pairs of made up words in
+ one update each, while solver threads keep solving boards that spell those words. Every solve
+ checks that
+
+     both words of a pair are in its snapshot or neither is (no half-applied update),
+     the solver found a made up word exactly when its snapshot has it,
+     every found word is in the snapshot,
+     the versions it sees never go back.
+
+ Usage: java LiveDictionaryStress [seconds] [solver threads] [writer threads]
+ */
+class LiveDictionaryStress {
+    private final LiveDictionary dictionary;
+    private final LiveDictionarySolver solver;
+    private final int writers;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong solves = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public LiveDictionaryStress(LiveDictionary dictionary, int writers) {
+        this.dictionary = dictionary;
+        this.solver = new LiveDictionarySolver(dictionary);
+        this.writers = writers;
+    }
+
+    /*
+     * the two words written by writer w, spelled on the first and the second row of its board
+     */
+    private static String first(int writer) {
+        return "qxz" + (char) ('a' + writer);
+    }
+
+    private static String second(int writer) {
+        return "qxy" + (char) ('a' + writer);
+    }
+
+    private class Writer implements Runnable {
+        private final int writer;
+
+        private Writer(int writer) {
+            this.writer = writer;
+        }
+
+        public void run() {
+            List<String> pair = Arrays.asList(first(writer), second(writer));
+            List<String> none = new ArrayList<String>();
+            boolean present = false;
+
+            while (running.get()) {
+                dictionary.update(present ? none : pair, present ? pair : none);
+                present = !present;
+                updates.incrementAndGet();
+            }
+        }
+    }
+
+    private class Solver implements Runnable {
+        private final long seed;
+
+        private Solver(long seed) {
+            this.seed = seed;
+        }
+
+        public void run() {
+            RandomBoardGenerator generator = new RandomBoardGenerator(seed);
+            long lastVersion = -1;
+
+            for (int i = 0; running.get(); i++) {
+                int writer = i % writers;
+                String board = "qxz" + (char) ('a' + writer) + "qxy" + (char) ('a' + writer) + generator.nextBoard(4).substring(8);
+                LiveDictionary.Snapshot snapshot = dictionary.snapshot();
+                Set<String> found = new HashSet<String>(solver.solve(Boggle.buildBoard(board), snapshot));
+                Dawg words = snapshot.getDictionary();
+
+                check(snapshot.getVersion() >= lastVersion, "version went back from " + lastVersion + " to " + snapshot.getVersion());
+                check(words.isWord(first(writer)) == words.isWord(second(writer)), "half-applied update in version " + snapshot.getVersion());
+                check(found.contains(first(writer)) == words.isWord(first(writer)), "solve does not match version " + snapshot.getVersion());
+                check(found.contains(second(writer)) == words.isWord(second(writer)), "solve does not match version " + snapshot.getVersion());
+
+                for (String word : found) {
+                    check(words.isWord(word), word + " is not in version " + snapshot.getVersion());
+                }
+
+                lastVersion = snapshot.getVersion();
+                solves.incrementAndGet();
+            }
+        }
+
+        private void check(boolean condition, String message) {
+            if (condition) return;
+
+            if (failures.incrementAndGet() <= 10) System.out.println("FAILED: " + message);
+        }
+    }
+
+    public long run(long millis, int solvers) throws InterruptedException {
+        List<Thread> threads = new ArrayList<Thread>();
+
+        for (int writer = 0; writer < writers; writer++) {
+            threads.add(new Thread(new Writer(writer)));
+        }
+
+        for (int i = 0; i < solvers; i++) {
+            threads.add(new Thread(new Solver(i)));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(millis);
+        running.set(false);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return failures.get();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 10;
+        int solvers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        LiveDictionary dictionary = new LiveDictionary(WithDictionary.readDictionary(WithDictionary.DICTIONARY_FILE));
+        LiveDictionaryStress stress = new LiveDictionaryStress(dictionary, writers);
+        long failures = stress.run((long) (seconds * 1000), solvers);
+
+        System.out.printf("%d solves on %d threads, %d updates on %d threads, last version %d, %d failures%n",
+            stress.solves.get(), solvers, stress.updates.get(), writers, dictionary.getVersion(), failures);
+
+        if (failures > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.ArrayList;
+
+/*
+ Dawg queried in place from a memory mapped snapshot, so opening the dictionary costs a map call
+ instead of reading and parsing dict.txt and rebuilding the graph.
+
+ Snapshot layout (little endian ints): MAGIC, VERSION, root, size, nodeCount, length,
+ alphabetLength, alphabet[alphabetLength], data[length], where the alphabet is every symbol as its
+ length followed by its chars.
+ */
+class MappedDawg extends Dawg {
+    private static final int MAGIC = 0x44415747; // "DAWG"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 7 * 4;
+
+    private final IntBuffer data;
+
+    private MappedDawg(Alphabet alphabet, IntBuffer data, int root, int size, int nodeCount, int length) {
+        super(alphabet, root, size, nodeCount, length);
+        this.data = data;
+    }
+
+    @Override
+    protected int at(int index) {
+        return data.get(index);
+    }
+
+    public static MappedDawg load(String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(fileName + " is not a dictionary snapshot");
+            }
+
+            int root = buffer.getInt(8);
+            int size = buffer.getInt(12);
+            int nodeCount = buffer.getInt(16);
+            int length = buffer.getInt(20);
+            int alphabetLength = buffer.getInt(24);
+
+            if (alphabetLength < 0 || buffer.limit() != HEADER_BYTES + 4L * alphabetLength + 4L * length) {
+                throw new IOException(fileName + " is truncated");
+            }
+
+            buffer.position(HEADER_BYTES);
+            IntBuffer ints = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            Alphabet alphabet = readAlphabet(ints, alphabetLength);
+
+            ints.position(alphabetLength);
+            IntBuffer data = ints.slice();
+
+            // the mapping stays valid after the channel is closed
+            return new MappedDawg(alphabet, data, root, size, nodeCount, length);
+        } finally {
+            file.close();
+        }
+    }
+
+    private static Alphabet readAlphabet(IntBuffer ints, int alphabetLength) throws IOException {
+        List<String> symbols = new ArrayList<String>();
+
+        for (int i = 0; i < alphabetLength; ) {
+            int symbolLength = ints.get(i++);
+
+            if (symbolLength <= 0 || i + symbolLength > alphabetLength) throw new IOException("Bad alphabet in snapshot");
+
+            char[] chars = new char[symbolLength];
+
+            for (int k = 0; k < symbolLength; k++) {
+                chars[k] = (char) ints.get(i++);
+            }
+
+            symbols.add(new String(chars));
+        }
+
+        try {
+            return new Alphabet(symbols.toArray(new String[symbols.size()]));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad alphabet in snapshot: " + e.getMessage());
+        }
+    }
+
+    public static void save(Dawg dawg, String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        Alphabet alphabet = dawg.alphabet();
+        int alphabetLength = 0;
+
+        for (int id = 0; id < alphabet.size(); id++) {
+            alphabetLength += 1 + alphabet.symbol(id).length();
+        }
+
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 4 * alphabetLength + 4 * dawg.length()).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(dawg.root());
+            buffer.putInt(dawg.size());
+            buffer.putInt(dawg.nodeCount());
+            buffer.putInt(dawg.length());
+            buffer.putInt(alphabetLength);
+
+            for (int id = 0; id < alphabet.size(); id++) {
+                String symbol = alphabet.symbol(id);
+                buffer.putInt(symbol.length());
+
+                for (int k = 0; k < symbol.length(); k++) {
+                    buffer.putInt(symbol.charAt(k));
+                }
+            }
+
+            for (int i = 0, sz = dawg.length(); i < sz; i++) {
+                buffer.putInt(dawg.at(i));
+            }
+
+            buffer.flip();
+            channel.truncate(0);
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -2,19 +2,40 @@ import java.util.List;
 
 class Node {
     private final char value;
+    // only set for tiles of more than one character
+    private final String tile;
     private final Position position;
     private final List<Position> neighbours;
 
     public Node(char value, Position position, List<Position> neighbours) {
         this.value = value;
+        this.tile = null;
         this.position = position;
         this.neighbours = neighbours;
     }
 
+    public Node(String tile, Position position, List<Position> neighbours) {
+        this.value = tile.charAt(0);
+        this.tile = tile.length() > 1 ? tile : null;
+        this.position = position;
+        this.neighbours = neighbours;
+    }
+
+    /*
+     * the first character of the tile
+     */
     public char getValue() {
         return value;
     }
 
+    public String getTile() {
+        return tile == null ? String.valueOf(value) : tile;
+    }
+
+    public boolean isMultiCharacter() {
+        return tile != null;
+    }
+
     public Position getPosition() {
         return position;
     }
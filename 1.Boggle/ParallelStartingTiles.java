@@ -0,0 +1,109 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ Runs a board search on a ForkJoinPool, split by starting tile. When the board has few tiles
+ compared to the pool, every (starting tile, first neighbour) pair becomes its own piece of work.
+ Each piece fills its own result list and the lists are merged (and deduplicated) at the end.
+ */
+class ParallelStartingTiles {
+    static final int NONE = -1;
+
+    private static final int PIECES_PER_THREAD = 8;
+
+    interface Search {
+        /*
+         * words on paths that start at start and, unless second is NONE, continue with second
+         * (the single tile word at start may come from several pieces); called concurrently,
+         * so every call needs its own search state
+         */
+        List<String> search(int start, int second);
+    }
+
+    public static List<String> solve(ForkJoinPool pool, Board board, Search search) {
+        int[] pieces = split(board, pool.getParallelism());
+
+        if (pieces.length == 0) return new ArrayList<String>();
+
+        List<String> words = pool.invoke(new SearchTask(search, pieces, 0, pieces.length / 2));
+
+        return new ArrayList<String>(new LinkedHashSet<String>(words));
+    }
+
+    /*
+     * (start, second) pairs, flattened
+     */
+    private static int[] split(Board board, int parallelism) {
+        int[] offsets = board.getAdjacencyOffsets();
+
+        if (board.size() >= PIECES_PER_THREAD * parallelism) {
+            int[] pieces = new int[2 * board.size()];
+
+            for (int cell = 0; cell < board.size(); cell++) {
+                pieces[2 * cell] = cell;
+                pieces[2 * cell + 1] = NONE;
+            }
+
+            return pieces;
+        }
+
+        int count = 0;
+
+        for (int cell = 0; cell < board.size(); cell++) {
+            count += Math.max(1, offsets[cell + 1] - offsets[cell]);
+        }
+
+        int[] pieces = new int[2 * count];
+
+        for (int cell = 0, piece = 0; cell < board.size(); cell++) {
+            // a tile without neighbours still has its single tile word
+            if (offsets[cell] == offsets[cell + 1]) {
+                pieces[2 * piece] = cell;
+                pieces[2 * piece + 1] = NONE;
+                piece++;
+            }
+
+            for (int i = offsets[cell]; i < offsets[cell + 1]; i++, piece++) {
+                pieces[2 * piece] = cell;
+                pieces[2 * piece + 1] = board.getAdjacency()[i];
+            }
+        }
+
+        return pieces;
+    }
+
+    private static class SearchTask extends RecursiveTask<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int[] pieces;
+        private final int from, to;
+
+        private SearchTask(Search search, int[] pieces, int from, int to) {
+            this.search = search;
+            this.pieces = pieces;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (to - from == 1) {
+                return search.search(pieces[2 * from], pieces[2 * from + 1]);
+            }
+
+            int middle = (from + to) >>> 1;
+            SearchTask left = new SearchTask(search, pieces, from, middle);
+            SearchTask right = new SearchTask(search, pieces, middle, to);
+
+            left.fork();
+            List<String> words = new ArrayList<String>(right.compute());
+            words.addAll(left.join());
+
+            return words;
+        }
+    }
+}
@@ -28,4 +28,8 @@ class Position {
         
         return false;
     }
+
+    public int hashCode() {
+        return 31 * row + column;
+    }
 }
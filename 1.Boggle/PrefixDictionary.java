@@ -0,0 +1,5 @@
+interface PrefixDictionary {
+    boolean hasPrefix(String prefix);
+
+    boolean isWord(String word);
+}
@@ -0,0 +1,45 @@
+import java.util.Random;
+
+/*
+ Seeded random boards with tiles drawn by English letter frequency.
+ */
+class RandomBoardGenerator {
+    // relative frequency of a..z in English text, per 10000 letters
+    private static final int[] LETTER_FREQUENCIES = {
+        817, 149, 278, 425, 1270, 223, 202, 609, 697, 15, 77, 403, 241,
+        675, 751, 193, 10, 599, 633, 906, 276, 98, 236, 15, 197, 7
+    };
+
+    private final Random random;
+    private final int[] cumulative = new int[LETTER_FREQUENCIES.length];
+
+    public RandomBoardGenerator(long seed) {
+        this.random = new Random(seed);
+
+        for (int letter = 0, sum = 0; letter < LETTER_FREQUENCIES.length; letter++) {
+            sum += LETTER_FREQUENCIES[letter];
+            cumulative[letter] = sum;
+        }
+    }
+
+    public char nextLetter() {
+        int value = random.nextInt(cumulative[cumulative.length - 1]);
+        int letter = 0;
+
+        while (cumulative[letter] <= value) {
+            letter++;
+        }
+
+        return (char) ('a' + letter);
+    }
+
+    public String nextBoard(int dimension) {
+        char[] tiles = new char[dimension * dimension];
+
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = nextLetter();
+        }
+
+        return new String(tiles);
+    }
+}
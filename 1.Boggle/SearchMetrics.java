@@ -0,0 +1,145 @@
+import java.util.List;
+import java.util.Locale;
+
+/*
+ Counters and phase timings of one or more solves:
+
+     states      (cell, dictionary node) states the search entered
+     prunes      steps to a neighbour the dictionary cut off (no such prefix, or with board letter
+                 pruning a prefix the board cannot complete)
+     hits        times the search reached a dictionary word, duplicates included
+     duplicates  hits on a word that was already found from another path
+
+ and the time spent loading the dictionary, building the board and searching it. Solvers that
+ implement Measured fill in the counters of their search; for any other solver only the search time
+ is known (see solve). A solver called without metrics does no timing, and its counters are plain
+ field increments on the search state it already has.
+
+ Adding is synchronized so pieces of a parallel search can report into one instance; a batch run
+ adds the metrics of every board into a total.
+ */
+class SearchMetrics {
+    private long boards;
+    private long states;
+    private long prunes;
+    private long hits;
+    private long duplicates;
+    private long loadNanos;
+    private long buildNanos;
+    private long searchNanos;
+
+    interface Measured extends BoggleSolver {
+        /*
+         * solve(board), adding the counters and the search time of this solve to metrics
+         */
+        List<String> solve(Board board, SearchMetrics metrics);
+    }
+
+    /*
+     * solves the board, measuring whatever the solver lets us measure
+     */
+    static List<String> solve(BoggleSolver solver, Board board, SearchMetrics metrics) {
+        if (solver instanceof Measured) return ((Measured) solver).solve(board, metrics);
+
+        long start = System.nanoTime();
+        List<String> foundWords = solver.solve(board);
+        metrics.addSearch(1, 0, 0, 0, 0, System.nanoTime() - start);
+
+        return foundWords;
+    }
+
+    synchronized void addSearch(long boards, long states, long prunes, long hits, long duplicates, long searchNanos) {
+        this.boards += boards;
+        this.states += states;
+        this.prunes += prunes;
+        this.hits += hits;
+        this.duplicates += duplicates;
+        this.searchNanos += searchNanos;
+    }
+
+    synchronized void addLoad(long nanos) {
+        loadNanos += nanos;
+    }
+
+    synchronized void addBuild(long nanos) {
+        buildNanos += nanos;
+    }
+
+    public synchronized void add(SearchMetrics other) {
+        SearchMetrics copy = other.copy();
+
+        boards += copy.boards;
+        states += copy.states;
+        prunes += copy.prunes;
+        hits += copy.hits;
+        duplicates += copy.duplicates;
+        loadNanos += copy.loadNanos;
+        buildNanos += copy.buildNanos;
+        searchNanos += copy.searchNanos;
+    }
+
+    private synchronized SearchMetrics copy() {
+        SearchMetrics copy = new SearchMetrics();
+        copy.boards = boards;
+        copy.states = states;
+        copy.prunes = prunes;
+        copy.hits = hits;
+        copy.duplicates = duplicates;
+        copy.loadNanos = loadNanos;
+        copy.buildNanos = buildNanos;
+        copy.searchNanos = searchNanos;
+
+        return copy;
+    }
+
+    public synchronized long getBoards() {
+        return boards;
+    }
+
+    public synchronized long getStates() {
+        return states;
+    }
+
+    public synchronized long getPrunes() {
+        return prunes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    public synchronized long getLoadNanos() {
+        return loadNanos;
+    }
+
+    public synchronized long getBuildNanos() {
+        return buildNanos;
+    }
+
+    public synchronized long getSearchNanos() {
+        return searchNanos;
+    }
+
+    /*
+     * share of the states the search tried to enter that were pruned, 0 when it tried none
+     */
+    public synchronized double getPruneRate() {
+        return states + prunes == 0 ? 0 : (double) prunes / (states + prunes);
+    }
+
+    public synchronized String toJson() {
+        return String.format(Locale.ROOT,
+            "{\"boards\":%d,\"states\":%d,\"prunes\":%d,\"pruneRate\":%.4f,\"hits\":%d,\"duplicates\":%d,"
+                + "\"loadNanos\":%d,\"buildNanos\":%d,\"searchNanos\":%d}",
+            boards, states, prunes, getPruneRate(), hits, duplicates, loadNanos, buildNanos, searchNanos);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -1,8 +1,27 @@
-public class Trie {
-    private TrieNode root = new TrieNode();
+public class Trie implements PrefixDictionary {
+    private final Alphabet alphabet;
+    private TrieNode root;
 
-    public void addWord(String word) {
-        root.addWord(word.toLowerCase());
+    public Trie() {
+        this(Alphabet.ENGLISH);
+    }
+
+    public Trie(Alphabet alphabet) {
+        this.alphabet = alphabet;
+        this.root = new TrieNode(alphabet.size());
+    }
+
+    /*
+     * false (and the word is left out) when it cannot be split into symbols of the alphabet
+     */
+    public boolean addWord(String word) {
+        String symbols = alphabet.encode(word.toLowerCase());
+
+        if (symbols == null || symbols.isEmpty()) return false;
+
+        root.addWord(symbols);
+
+        return true;
     }
 
     public boolean hasPrefix(String word) {
@@ -20,13 +39,25 @@ public class Trie {
     private TrieNode descend(String word) {
         TrieNode lastNode = root;
 
-        for (int i = 0, sz = word.length(); i < sz; i++) {
-            lastNode = lastNode.getNode(word.charAt(i));
+        if (alphabet.isSingleCharacter()) {
+            for (int i = 0, sz = word.length(); i < sz; i++) {
+                lastNode = lastNode.getNode(alphabet.id(word.charAt(i)));
+
+                if (lastNode == null) break;
+            }
+
+            return lastNode;
+        }
+
+        String symbols = alphabet.encode(word);
+
+        for (int i = 0, sz = symbols == null ? 0 : symbols.length(); i < sz; i++) {
+            lastNode = lastNode.getNode(symbols.charAt(i));
 
             if (lastNode == null) break;
         }
 
-        return lastNode;
+        return symbols == null ? null : lastNode;
     }
 }
 
@@ -37,28 +68,27 @@ class TrieNode {
     private boolean isWord;
     private char character;
 
-    protected TrieNode() {
-        children = new TrieNode[26];
+    protected TrieNode(int alphabetSize) {
+        children = new TrieNode[alphabetSize];
         isLeaf = true;
         isWord = false;
     }
 
-    protected TrieNode(char character) {
-        this();
+    protected TrieNode(int alphabetSize, char character) {
+        this(alphabetSize);
         this.character = character;
     }
 
+    /*
+     * word as a string of symbol ids (see Alphabet.encode)
+     */
     protected void addWord(String word) {
         isLeaf = false;
 
-        if (!(word.charAt(0) >= 'a' && word.charAt(0) <= 'z')) {
-            System.out.println(word);
-        }
-
-        int charPos = word.charAt(0) - 'a';
+        int charPos = word.charAt(0);
 
         if (children[charPos] == null) {
-            children[charPos] = new TrieNode(word.charAt(0));
+            children[charPos] = new TrieNode(children.length, word.charAt(0));
             children[charPos].parent = this;
         }
 
@@ -69,8 +99,8 @@ class TrieNode {
         }
     }
 
-    protected TrieNode getNode(char c) {
-        return children[c - 'a'];
+    protected TrieNode getNode(int symbol) {
+        return symbol == Alphabet.NONE ? null : children[symbol];
     }
 
     protected boolean isWord() {
@@ -5,12 +5,18 @@ import java.util.List;
 import java.util.ArrayList;
 
 public abstract class WithDictionary {
+    protected static final String DICTIONARY_FILE = "dict.txt";
+
     protected List<String> readDictionary() {
+        return readDictionary(DICTIONARY_FILE);
+    }
+
+    protected static List<String> readDictionary(String fileName) {
         String word;
         List<String> words = new ArrayList<String>();
 
         try {
-            BufferedReader bufferedReader = new BufferedReader(new FileReader("dict.txt"));
+            BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName));
 
             while ((word = bufferedReader.readLine()) != null) {
                 words.add(word);
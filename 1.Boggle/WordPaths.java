@@ -0,0 +1,57 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ Found words together with one path per word. Paths are cell indices (see Board) packed one
+ after another: the path of word i is cells[offsets[i] .. offsets[i + 1]).
+ */
+class WordPaths {
+    private final List<String> words = new ArrayList<String>();
+    private int[] offsets = new int[16];
+    private int[] cells = new int[64];
+
+    void add(String word, int[] path, int length) {
+        int size = words.size();
+
+        if (size + 2 > offsets.length) offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+
+        int start = offsets[size];
+
+        if (start + length > cells.length) cells = Arrays.copyOf(cells, Math.max(2 * cells.length, start + length));
+
+        System.arraycopy(path, 0, cells, start, length);
+        offsets[size + 1] = start + length;
+        words.add(word);
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    public String getWord(int index) {
+        return words.get(index);
+    }
+
+    public int[] getPath(int index) {
+        return Arrays.copyOfRange(cells, offsets[index], offsets[index + 1]);
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    /*
+     * a copy of the size() + 1 path offsets
+     */
+    public int[] getOffsets() {
+        return Arrays.copyOf(offsets, words.size() + 1);
+    }
+
+    /*
+     * a copy of the cells of all paths, as many as the last offset
+     */
+    public int[] getCells() {
+        return Arrays.copyOf(cells, offsets[words.size()]);
+    }
+}
@@ -1,50 +1,98 @@
-import java.util.Queue;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
+/*
+ A* on moves + the estimate of a Heuristic, Manhattan distance unless given another. Every state
+ found is in the visited set and its id indexes the parent, moves, distance and empty tile arrays,
+ 9 bytes per state besides its entry in the set. The open list is a BucketQueue of ids by
+ moves + distance, ties going to the state with the most moves, which is the closest to the goal
+ by its estimate. A state reached again in fewer moves is added again, the old entry is skipped
+ when it comes out with its old number of moves.
+ */
 class AStarSolver extends SlidingPuzzleSolver {
-    private PriorityQueue<BoardState> queue;
-    private Set<List<Integer>> visited;
+    private final Heuristic heuristic;
+    private PackedStateSet visited;
+    private int[] parents = new int[1024];
+    private short[] moves = new short[1024];
+    private short[] distances = new short[1024];
+    private byte[] empties = new byte[1024];
+
+    public AStarSolver() {
+        this(null);
+    }
+
+    public AStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
 
     public BoardState solvePuzzle(Board board) {
-        queue = new PriorityQueue<BoardState>(100, new BoardStateComparator());
-        visited = new HashSet<List<Integer>>();
+        checkDimension(board.getDimension());
 
-        BoardState currentState = initBoardState(board);
-        queue.add(currentState);
-        visited.add(currentState.getBoard().getValues());
+        PackedState codec = new PackedState(board.getDimension());
+        Heuristic heuristic = this.heuristic == null ? new ManhattanHeuristic(board.getDimension()) : this.heuristic;
+        int words = codec.words();
+        BucketQueue queue = new BucketQueue();
+        long[] goal = new long[words];
+        long[] next = new long[words];
+        byte[] tiles = new byte[board.getDimension() * board.getDimension()];
+
+        visited = new PackedStateSet(words);
+        codec.encode(board.getValues(), next, 0);
+        codec.encodeGoal(goal, 0);
+        visited.add(next, 0);
+        codec.toTiles(next, 0, tiles);
+        parents[0] = PackedStateSet.NONE;
+        moves[0] = 0;
+        distances[0] = (short) heuristic.estimate(tiles);
+        empties[0] = (byte) zeroPosition(board);
+        queue.add(0, distances[0], 0);
 
         while (!queue.isEmpty()) {
-            currentState = queue.remove();
+            int id = queue.remove();
+
+            if (queue.lastDepth() != moves[id]) continue;
+
+            if (codec.equals(visited.states(), id * words, goal, 0)) {
+                int[] path = pathTo(parents, id);
 
-            if (isSolved(currentState.getBoard())) {
-                return currentState;
+                return buildBoardState(codec, visited, path, path.length);
             }
 
-            for (BoardState nextState : generatePossibleMoves(currentState)) {
-                if (nextState == null || visited.contains(nextState.getBoard().getValues())) continue;
+            if ((++expandedNodes & 0xFFF) == 0 && outOfTime()) return null;
 
-                visited.add(nextState.getBoard().getValues());
-                queue.add(nextState);
+            int empty = empties[id] & 0xFF;
+
+            for (int from : codec.moves(empty)) {
+                codec.move(visited.states(), id * words, next, 0, empty, from);
+                int nextMoves = moves[id] + 1;
+                int nextId = visited.add(next, 0);
+
+                if (nextId == PackedStateSet.NONE) {
+                    nextId = visited.indexOf(next, 0);
+
+                    if (moves[nextId] <= nextMoves) continue;
+                } else {
+                    ensureCapacity(nextId + 1);
+                    codec.toTiles(next, 0, tiles);
+                    distances[nextId] = (short) heuristic.estimate(tiles);
+                    empties[nextId] = (byte) from;
+                }
+
+                parents[nextId] = id;
+                moves[nextId] = (short) nextMoves;
+                queue.add(nextId, nextMoves + distances[nextId], nextMoves);
             }
         }
 
         return null;
     }
 
-    private class BoardStateComparator implements Comparator<BoardState> {
-        @Override
-        public int compare(BoardState firstState, BoardState secondState) {
-            int result = 0;
+    private void ensureCapacity(int size) {
+        if (size <= parents.length) return;
 
-            if (firstState.getDistance() + firstState.getMoves() < secondState.getDistance() + secondState.getMoves()) {
-                result = -1;
-            } else if (firstState.getDistance() + firstState.getMoves() > secondState.getDistance() + secondState.getMoves()) {
-                result = 1;
-            }
-
-            return result;
-        }
+        int capacity = 2 * parents.length;
+        parents = Arrays.copyOf(parents, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        empties = Arrays.copyOf(empties, capacity);
     }
 }
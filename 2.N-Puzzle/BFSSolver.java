@@ -1,33 +1,52 @@
-import java.util.List;
-import java.util.Set;
-import java.util.Queue;
-import java.util.LinkedList;
-import java.util.HashSet;
+import java.util.Arrays;
 
+/*
+ States are numbered in the order they are found, which is breadth first order, so the queue is
+ just a cursor running over the ids of the visited set.
+ */
 class BFSSolver extends SlidingPuzzleSolver {
-    private Queue<BoardState> queue;
-    private Set<List<Integer>> visited;
-
     public BoardState solvePuzzle(Board board) {
-        queue = new LinkedList<BoardState>();
-        visited = new HashSet<List<Integer>>();
+        checkDimension(board.getDimension());
+
+        PackedState codec = new PackedState(board.getDimension());
+        int words = codec.words();
+        PackedStateSet visited = new PackedStateSet(words);
+        long[] goal = new long[words];
+        long[] next = new long[words];
+        int[] parents = new int[1024];
+        byte[] empties = new byte[1024];
+
+        codec.encode(board.getValues(), next, 0);
+        codec.encodeGoal(goal, 0);
+        visited.add(next, 0);
+        parents[0] = PackedStateSet.NONE;
+        empties[0] = (byte) zeroPosition(board);
+
+        for (int id = 0; id < visited.size(); id++) {
+            if (codec.equals(visited.states(), id * words, goal, 0)) {
+                int[] path = pathTo(parents, id);
+
+                return buildBoardState(codec, visited, path, path.length);
+            }
 
-        BoardState currentState = initBoardState(board);
-        queue.add(currentState);
-        visited.add(currentState.getBoard().getValues());
+            if ((++expandedNodes & 0xFFF) == 0 && outOfTime()) return null;
 
-        while (!queue.isEmpty()) {
-            currentState = queue.remove();
+            int empty = empties[id] & 0xFF;
 
-            if (isSolved(currentState.getBoard())) {
-                return currentState;
-            }
+            for (int from : codec.moves(empty)) {
+                codec.move(visited.states(), id * words, next, 0, empty, from);
+
+                int nextId = visited.add(next, 0);
+
+                if (nextId == PackedStateSet.NONE) continue;
 
-            for (BoardState nextState : generatePossibleMoves(currentState)) {
-                if (nextState == null || visited.contains(nextState.getBoard().getValues())) continue;
+                if (nextId == parents.length) {
+                    parents = Arrays.copyOf(parents, 2 * nextId);
+                    empties = Arrays.copyOf(empties, 2 * nextId);
+                }
 
-                visited.add(nextState.getBoard().getValues());
-                queue.add(nextState);
+                parents[nextId] = id;
+                empties[nextId] = (byte) from;
             }
         }
 
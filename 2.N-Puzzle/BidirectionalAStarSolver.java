@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/*
+ MM, the bidirectional heuristic search that meets in the middle (Holte et al.). Each side has a
+ BucketQueue ordered by max(moves + estimate, 2 * moves), so neither side expands a state past
+ half of the path, and the side whose queue has the lower priority expands next. Every state
+ either side reaches that the other has reached too gives a path; the search stops as soon as the
+ best of them is no longer than the lowest priority left, which bounds every path not yet seen.
+
+ The forward estimate is the Heuristic, Manhattan distance unless given another; the backward one
+ is the Manhattan distance to the start board, as a pattern database only knows the goal.
+ */
+class BidirectionalAStarSolver extends BidirectionalSolver {
+    private final Heuristic heuristic;
+    // estimates[side][id], UNREACHED until that side reaches id
+    private short[][] estimates;
+
+    public BidirectionalAStarSolver() {
+        this(null);
+    }
+
+    public BidirectionalAStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    public BoardState solvePuzzle(Board board) {
+        int dimension = board.getDimension();
+        byte[] tiles = toTiles(board);
+        Heuristic[] heuristics = {
+            heuristic == null ? new ManhattanHeuristic(dimension) : heuristic,
+            new ManhattanHeuristic(dimension, tiles)
+        };
+        BucketQueue[] queues = {new BucketQueue(), new BucketQueue()};
+
+        estimates = new short[][] {new short[1024], new short[1024]};
+        int goal = init(board);
+
+        if (goal == 0) return stitch(0);
+
+        int[] roots = {0, goal};
+
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            toTiles(roots[side], tiles);
+            estimates[side][roots[side]] = (short) heuristics[side].estimate(tiles);
+            queues[side].add(roots[side], estimates[side][roots[side]], 0);
+        }
+
+        int best = Integer.MAX_VALUE;
+        int meeting = PackedStateSet.NONE;
+
+        while (!queues[FORWARD].isEmpty() && !queues[BACKWARD].isEmpty()) {
+            int forward = queues[FORWARD].peekPriority();
+            int backward = queues[BACKWARD].peekPriority();
+
+            if (best <= Math.min(forward, backward)) break;
+
+            int side = forward <= backward ? FORWARD : BACKWARD;
+            int other = 1 - side;
+            int id = queues[side].remove();
+
+            if (queues[side].lastDepth() != moves[side][id]) continue;
+
+            if ((++expandedNodes & 0xFFF) == 0 && outOfTime()) return null;
+
+            int count = moves[side][id] + 1;
+
+            for (int from : codec.moves(empties[id] & 0xFF)) {
+                int child = child(id, from);
+
+                if (moves[side][child] != UNREACHED && moves[side][child] <= count) continue;
+
+                if (moves[side][child] == UNREACHED) {
+                    toTiles(child, tiles);
+                    estimates[side][child] = (short) heuristics[side].estimate(tiles);
+                }
+
+                reached(side, child, id, count);
+                queues[side].add(child, Math.max(count + estimates[side][child], 2 * count), count);
+
+                if (moves[other][child] != UNREACHED && count + moves[other][child] < best) {
+                    best = count + moves[other][child];
+                    meeting = child;
+                }
+            }
+        }
+
+        return meeting == PackedStateSet.NONE ? null : stitch(meeting);
+    }
+
+    protected void grow(int capacity) {
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            estimates[side] = Arrays.copyOf(estimates[side], capacity);
+        }
+    }
+}
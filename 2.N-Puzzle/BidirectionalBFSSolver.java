@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+/*
+ Breadth first search from both ends, always a whole level of the side with the smaller frontier.
+ A state the expanding side reaches that the other side already has joins the two searches; the
+ best join over the level is a shortest path, since any shorter one would have joined on an
+ earlier level. Each side only looks about half as deep as BFSSolver, for roughly the square root
+ of its states.
+ */
+class BidirectionalBFSSolver extends BidirectionalSolver {
+    public BoardState solvePuzzle(Board board) {
+        int goal = init(board);
+
+        if (goal == 0) return stitch(0);
+
+        int[][] frontiers = {{0}, {goal}};
+        int[] sizes = {1, 1};
+
+        while (sizes[FORWARD] > 0 && sizes[BACKWARD] > 0) {
+            int side = sizes[FORWARD] <= sizes[BACKWARD] ? FORWARD : BACKWARD;
+            int other = 1 - side;
+            int[] level = new int[Math.max(16, 2 * sizes[side])];
+            int levelSize = 0;
+            int best = Integer.MAX_VALUE;
+            int meeting = PackedStateSet.NONE;
+
+            for (int i = 0; i < sizes[side]; i++) {
+                int id = frontiers[side][i];
+
+                if ((++expandedNodes & 0xFFF) == 0 && outOfTime()) return null;
+
+                for (int from : codec.moves(empties[id] & 0xFF)) {
+                    int child = child(id, from);
+
+                    if (moves[side][child] != UNREACHED) continue;
+
+                    reached(side, child, id, moves[side][id] + 1);
+
+                    if (moves[other][child] != UNREACHED && moves[side][child] + moves[other][child] < best) {
+                        best = moves[side][child] + moves[other][child];
+                        meeting = child;
+                    }
+
+                    if (levelSize == level.length) level = Arrays.copyOf(level, 2 * levelSize);
+
+                    level[levelSize++] = child;
+                }
+            }
+
+            if (meeting != PackedStateSet.NONE) return stitch(meeting);
+
+            frontiers[side] = level;
+            sizes[side] = levelSize;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/*
+ Base of the searches that grow from the start board and from the goal board at once. Both
+ directions share one PackedStateSet, so a state has one id whichever side finds it, and per
+ direction an id has the moves it took from that side's root (UNREACHED if none) and its parent
+ there. A state with moves from both sides joins a path of their sum; stitch turns the best one
+ into BoardStates, start to goal.
+
+ Moves are reversible, so the backward search makes the same moves as the forward one.
+ */
+abstract class BidirectionalSolver extends SlidingPuzzleSolver {
+    static final int FORWARD = 0;
+    static final int BACKWARD = 1;
+    static final short UNREACHED = -1;
+
+    protected PackedState codec;
+    protected PackedStateSet visited;
+    // moves[side][id], parents[side][id]
+    protected short[][] moves;
+    protected int[][] parents;
+    protected byte[] empties;
+    private long[] next;
+
+    /*
+     * sets up the shared set with the start board as id 0 and the goal board as the root of the
+     * backward search, whose id this returns (0 again when the start is solved)
+     */
+    protected int init(Board board) {
+        checkDimension(board.getDimension());
+
+        codec = new PackedState(board.getDimension());
+        visited = new PackedStateSet(codec.words());
+        moves = new short[][] {new short[1024], new short[1024]};
+        parents = new int[][] {new int[1024], new int[1024]};
+        empties = new byte[1024];
+        next = new long[codec.words()];
+
+        Arrays.fill(moves[FORWARD], UNREACHED);
+        Arrays.fill(moves[BACKWARD], UNREACHED);
+
+        codec.encode(board.getValues(), next, 0);
+        visited.add(next, 0);
+        reached(FORWARD, 0, PackedStateSet.NONE, 0);
+        empties[0] = (byte) zeroPosition(board);
+
+        codec.encodeGoal(next, 0);
+        int goal = visited.add(next, 0);
+
+        if (goal == PackedStateSet.NONE) {
+            goal = 0;
+        } else {
+            empties[goal] = (byte) (board.getDimension() * board.getDimension() - 1);
+        }
+
+        reached(BACKWARD, goal, PackedStateSet.NONE, 0);
+
+        return goal;
+    }
+
+    /*
+     * id of the state after sliding the tile at from into the empty position of id
+     */
+    protected int child(int id, int from) {
+        int words = codec.words();
+
+        codec.move(visited.states(), id * words, next, 0, empties[id] & 0xFF, from);
+        int child = visited.add(next, 0);
+
+        if (child == PackedStateSet.NONE) return visited.indexOf(next, 0);
+
+        ensureCapacity(child + 1);
+        empties[child] = (byte) from;
+
+        return child;
+    }
+
+    protected void reached(int side, int id, int parent, int count) {
+        moves[side][id] = (short) count;
+        parents[side][id] = parent;
+    }
+
+    /*
+     * the path through id, forward half from the start and backward half on to the goal
+     */
+    protected BoardState stitch(int id) {
+        int[] forward = pathTo(parents[FORWARD], id);
+        int[] backward = pathTo(parents[BACKWARD], id);
+        int[] path = Arrays.copyOf(forward, forward.length + backward.length - 1);
+
+        for (int i = 0; i < backward.length - 1; i++) {
+            path[forward.length + i] = backward[backward.length - 2 - i];
+        }
+
+        return buildBoardState(codec, visited, path, path.length);
+    }
+
+    /*
+     * the tile at every position of id, see Heuristic
+     */
+    protected void toTiles(int id, byte[] tiles) {
+        codec.toTiles(visited.states(), id * codec.words(), tiles);
+    }
+
+    protected void ensureCapacity(int size) {
+        if (size <= empties.length) return;
+
+        int capacity = 2 * empties.length;
+
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            int old = moves[side].length;
+
+            moves[side] = Arrays.copyOf(moves[side], capacity);
+            parents[side] = Arrays.copyOf(parents[side], capacity);
+            Arrays.fill(moves[side], old, capacity, UNREACHED);
+        }
+
+        empties = Arrays.copyOf(empties, capacity);
+        grow(capacity);
+    }
+
+    /*
+     * per id arrays of a subclass, to the new capacity
+     */
+    protected void grow(int capacity) {
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/*
+ Open list of ids for searches whose priorities are small ints, as moves + estimate are. There is a
+ stack of ids for every (priority, depth) pair, depth being at most the priority, and remove takes
+ from the lowest priority, ties broken toward the deepest; within a pair the last added comes out
+ first. Adding and removing cost no more than a scan over the depths of one priority, with no
+ object and no log n sift per entry.
+
+ The pair (p, d) is bucket p * (p + 1) / 2 + d, so the buckets of one priority are next to each
+ other and the bucket arrays only grow as far as the largest priority added.
+ */
+class BucketQueue {
+    private int[][] buckets = new int[1024][];
+    private int[] sizes = new int[1024];
+    // per priority, no bucket of it deeper than this has ids
+    private int[] deepest = new int[64];
+    private int minPriority = Integer.MAX_VALUE;
+    private int size = 0;
+    private int lastPriority;
+    private int lastDepth;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int id, int priority, int depth) {
+        if (depth < 0 || depth > priority) throw new IllegalArgumentException("Depth " + depth + " at priority " + priority);
+
+        int bucket = bucket(priority, depth);
+
+        ensureCapacity(priority);
+
+        if (buckets[bucket] == null) {
+            buckets[bucket] = new int[16];
+        } else if (sizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], 2 * sizes[bucket]);
+        }
+
+        buckets[bucket][sizes[bucket]++] = id;
+
+        if (priority < minPriority) minPriority = priority;
+        if (depth > deepest[priority]) deepest[priority] = depth;
+
+        size++;
+    }
+
+    /*
+     * an id of the lowest priority and, among those, the greatest depth
+     */
+    public int remove() {
+        int bucket = first();
+
+        lastPriority = minPriority;
+        lastDepth = deepest[minPriority];
+        size--;
+
+        return buckets[bucket][--sizes[bucket]];
+    }
+
+    /*
+     * the lowest priority of any id, without removing it
+     */
+    public int peekPriority() {
+        first();
+
+        return minPriority;
+    }
+
+    /*
+     * the bucket remove takes from, moving minPriority and deepest up to it
+     */
+    private int first() {
+        if (size == 0) throw new IllegalStateException("Queue is empty");
+
+        while (true) {
+            int first = bucket(minPriority, 0);
+
+            for (int depth = deepest[minPriority]; depth >= 0; depth--) {
+                if (sizes[first + depth] > 0) {
+                    deepest[minPriority] = depth;
+
+                    return first + depth;
+                }
+            }
+
+            deepest[minPriority] = 0;
+            minPriority++;
+        }
+    }
+
+    /*
+     * priority of the id last removed
+     */
+    public int lastPriority() {
+        return lastPriority;
+    }
+
+    /*
+     * depth of the id last removed
+     */
+    public int lastDepth() {
+        return lastDepth;
+    }
+
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        Arrays.fill(deepest, 0);
+        minPriority = Integer.MAX_VALUE;
+        size = 0;
+    }
+
+    private static int bucket(int priority, int depth) {
+        return priority * (priority + 1) / 2 + depth;
+    }
+
+    private void ensureCapacity(int priority) {
+        if (priority >= deepest.length) deepest = Arrays.copyOf(deepest, Math.max(2 * deepest.length, priority + 1));
+
+        int needed = bucket(priority + 1, 0);
+
+        if (needed > buckets.length) {
+            int capacity = Math.max(2 * buckets.length, needed);
+            buckets = Arrays.copyOf(buckets, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+    }
+}
@@ -1,38 +1,61 @@
-import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
-
+/*
+ The visited set holds the states on the current path and nothing else, added on the way down and
+ taken back with removeLast on the way up, so state id i is the state after i moves.
+ */
 class DFSSolver extends SlidingPuzzleSolver {
-    private Set<List<Integer>> visited;
+    private PackedState codec;
+    private PackedStateSet visited;
+    private long[] goal;
+    // children are built here, add copies them into visited
+    private long[] scratch;
 
     public BoardState solvePuzzle(Board board) {
-        visited = new HashSet<List<Integer>>();
-        BoardState currentState = initBoardState(board);
+        codec = new PackedState(board.getDimension());
+        visited = new PackedStateSet(codec.words());
+        goal = new long[codec.words()];
+        scratch = new long[codec.words()];
 
-        return findSolution(currentState);
-    }
-    
-    private BoardState findSolution(BoardState currentState) {
-        if (isSolved(currentState)) {
-            return currentState;
+        codec.encode(board.getValues(), scratch, 0);
+        codec.encodeGoal(goal, 0);
+        visited.add(scratch, 0);
+
+        if (!findSolution(zeroPosition(board))) return null;
+
+        int[] path = new int[visited.size()];
+
+        for (int i = 0; i < path.length; i++) {
+            path[i] = i;
         }
 
-        BoardState finalState = null;
+        return buildBoardState(codec, visited, path, path.length);
+    }
 
-        visited.add(currentState.getBoard().getValues());
+    /*
+     * true when the path in visited, ending with the empty tile at empty, reaches the goal
+     */
+    private boolean findSolution(int empty) {
+        int words = codec.words();
+        int id = visited.size() - 1;
 
-        for (BoardState nextState : generatePossibleMoves(currentState)) {
-            if (nextState == null || visited.contains(nextState.getBoard().getValues())) continue;
+        if (codec.equals(visited.states(), id * words, goal, 0)) {
+            return true;
+        }
+
+        // once out of time every call on the path returns at once
+        if (isOutOfTime() || (++expandedNodes & 0xFFF) == 0 && outOfTime()) return false;
+
+        for (int from : codec.moves(empty)) {
+            codec.move(visited.states(), id * words, scratch, 0, empty, from);
 
-            finalState = findSolution(nextState);
+            if (visited.add(scratch, 0) == PackedStateSet.NONE) continue;
 
-            if (finalState != null) {
-                return finalState;
+            if (findSolution(from)) {
+                return true;
             }
-        }
 
-        visited.remove(currentState.getBoard().getValues());
+            visited.removeLast();
+        }
 
-        return null;
+        return false;
     }
 }
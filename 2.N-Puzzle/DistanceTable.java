@@ -0,0 +1,119 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ Exact distances to the goal for every state of a small board, as written by ExternalBFS: one byte
+ per permutation rank (see rank), UNKNOWN for states the search did not reach, which are the
+ unsolvable half unless the search was cut off. As a Heuristic it is perfect, IDA* walks straight
+ to the goal; unknown states estimate 0.
+
+ File layout (little endian ints): MAGIC, VERSION, rows, columns, then rows * columns factorial
+ bytes. The file is mapped, not read.
+ */
+class DistanceTable implements Heuristic {
+    private static final int MAGIC = 0x44535431; // "DST1"
+    private static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int UNKNOWN = 0xFF;
+    // the largest number of entries a mapped file can hold
+    static final long MAX_ENTRIES = Integer.MAX_VALUE - HEADER_BYTES;
+
+    private final int rows, columns;
+    private final MappedByteBuffer table;
+
+    private DistanceTable(int rows, int columns, MappedByteBuffer table) {
+        this.rows = rows;
+        this.columns = columns;
+        this.table = table;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /*
+     * rank of the state with tile tiles[position] at every position: the positions of the tiles
+     * 0, 1, ..., ranked as a placement of them all (see PatternDatabase.rank)
+     */
+    static long rank(byte[] tiles, int[] positions) {
+        for (int position = 0; position < tiles.length; position++) {
+            positions[tiles[position]] = position;
+        }
+
+        return PatternDatabase.rank(positions, tiles.length, tiles.length);
+    }
+
+    /*
+     * moves to the goal from the state of this rank, UNKNOWN if not reached
+     */
+    public int distance(long rank) {
+        return table.get(HEADER_BYTES + (int) rank) & 0xFF;
+    }
+
+    public int estimate(byte[] tiles) {
+        int distance = distance(rank(tiles, new int[tiles.length]));
+
+        return distance == UNKNOWN ? 0 : distance;
+    }
+
+    public static DistanceTable load(String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(fileName + " is not a distance table");
+            }
+
+            int rows = buffer.getInt(8);
+            int columns = buffer.getInt(12);
+
+            if (rows < 1 || columns < 1 || HEADER_BYTES + PatternDatabase.entries(rows * columns, rows * columns) != buffer.limit()) {
+                throw new IOException(fileName + " has a bad size");
+            }
+
+            return new DistanceTable(rows, columns, buffer);
+        } finally {
+            file.close();
+        }
+    }
+
+    /*
+     * a table of UNKNOWN entries for a board of rows x columns, mapped for writing
+     */
+    static MappedByteBuffer create(File path, int rows, int columns) throws IOException {
+        long entries = PatternDatabase.entries(rows * columns, rows * columns);
+
+        if (entries > MAX_ENTRIES) throw new IllegalArgumentException(rows + "x" + columns + " has too many states for a distance table");
+
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+
+        try {
+            file.setLength(0);
+            file.setLength(HEADER_BYTES + entries);
+
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + entries);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns);
+
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) UNKNOWN);
+            }
+
+            return buffer;
+        } finally {
+            file.close();
+        }
+    }
+}
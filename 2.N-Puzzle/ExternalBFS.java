@@ -0,0 +1,427 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.MappedByteBuffer;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ Breadth first search of the whole state space of a rows x columns sliding puzzle, backwards from
+ the goal, with the layers on disk instead of in a visited set. A state is its permutation rank
+ (see DistanceTable.rank) and every layer is a SortedRankFile, layer-<depth>.rnk in the directory.
+
+ The next layer is made in two passes. The states of the current layer are read in chunks, and
+ every chunk is expanded by a thread of its own into a sorted run of distinct successors. The runs
+ are then merged, and a successor is kept unless it is in the current layer or the one before,
+ both read along in step: a move is undone by one move, so a state one layer on can only have been
+ seen there. A merge reads at most MERGE_FAN_IN runs at once, each through a buffer of its own;
+ more runs are first merged in groups into fewer, larger ones. Memory is the chunks in flight and
+ those buffers, whatever the size of the space.
+
+ A layer is written under a temporary name and renamed once complete, so after an interruption
+ the search resumes from the last complete layer. An empty layer marks the end; then the number of
+ states at every depth goes to histogram.txt, and the distances of all states to distances.dst (a
+ DistanceTable) when the space is small enough to map.
+
+ Usage: java ExternalBFS [rows] [columns] [directory] [threads] [max depth]
+ */
+class ExternalBFS {
+    private static final int CHUNK = 1 << 20;
+    private static final int MERGE_FAN_IN = 64;
+
+    private final int rows, columns, cells;
+    private final File directory;
+    private final int threads;
+    private final int[][] neighbours;
+
+    public ExternalBFS(int rows, int columns, File directory, int threads) {
+        if (rows < 1 || columns < 1 || rows * columns < 2 || rows * columns > 20) {
+            throw new IllegalArgumentException(rows + "x" + columns + " is not supported, ranks must fit a long");
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = rows * columns;
+        this.directory = directory;
+        this.threads = threads;
+        this.neighbours = new int[cells][];
+
+        for (int empty = 0; empty < cells; empty++) {
+            int row = empty / columns, col = empty % columns;
+            int[] targets = new int[4];
+            int count = 0;
+
+            if (row > 0) targets[count++] = empty - columns;
+            if (col < columns - 1) targets[count++] = empty + 1;
+            if (row < rows - 1) targets[count++] = empty + columns;
+            if (col > 0) targets[count++] = empty - 1;
+
+            neighbours[empty] = Arrays.copyOf(targets, count);
+        }
+    }
+
+    private File layer(int depth) {
+        return new File(directory, "layer-" + depth + ".rnk");
+    }
+
+    /*
+     * searches until a layer comes out empty or maxDepth is written, returns the states per depth
+     * up to the last non-empty layer
+     */
+    public long[] search(int maxDepth) throws IOException, InterruptedException {
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+
+        for (File stale : directory.listFiles()) {
+            if (stale.getName().endsWith(".tmp")) stale.delete();
+        }
+
+        int depth = 0;
+
+        while (layer(depth + 1).exists()) {
+            depth++;
+        }
+
+        if (depth == 0 && !layer(0).exists()) {
+            writeGoal();
+        } else {
+            System.out.println("Resuming after layer " + depth);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            while (depth < maxDepth && count(depth) > 0) {
+                long start = System.nanoTime();
+                long count = expand(depth, executor);
+
+                depth++;
+                System.out.printf("Depth %d: %d states, %.1f s%n", depth, count, (System.nanoTime() - start) / 1e9);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        boolean complete = count(depth) == 0;
+        long[] histogram = new long[complete ? depth : depth + 1];
+
+        for (int d = 0; d < histogram.length; d++) {
+            histogram[d] = count(d);
+        }
+
+        if (complete) writeResults(histogram);
+
+        return histogram;
+    }
+
+    private long count(int depth) throws IOException {
+        SortedRankFile.Reader reader = new SortedRankFile.Reader(layer(depth));
+
+        try {
+            return reader.getCount();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void writeGoal() throws IOException {
+        byte[] goal = new byte[cells];
+
+        for (int position = 0; position < cells; position++) {
+            goal[position] = (byte) ((position + 1) % cells);
+        }
+
+        File temporary = new File(directory, "layer-0.tmp");
+        SortedRankFile.Writer writer = new SortedRankFile.Writer(temporary, rows, columns, 0);
+        writer.add(DistanceTable.rank(goal, new int[cells]));
+        writer.close();
+
+        rename(temporary, layer(0));
+    }
+
+    /*
+     * writes layer depth + 1, returns its size
+     */
+    private long expand(int depth, ExecutorService executor) throws IOException, InterruptedException {
+        List<File> runs = new ArrayList<File>();
+        SortedRankFile.Reader current = new SortedRankFile.Reader(layer(depth));
+
+        try {
+            while (current.hasNext()) {
+                List<Expansion> expansions = new ArrayList<Expansion>();
+
+                for (int task = 0; task < threads && current.hasNext(); task++) {
+                    long[] chunk = new long[(int) Math.min(CHUNK, current.getCount())];
+                    int size = 0;
+
+                    while (size < chunk.length && current.hasNext()) {
+                        chunk[size++] = current.next();
+                    }
+
+                    expansions.add(new Expansion(chunk, size, new File(directory, "run-" + (depth + 1) + "-" + runs.size() + ".tmp")));
+                    runs.add(expansions.get(expansions.size() - 1).run);
+                }
+
+                for (Future<File> done : executor.invokeAll(expansions)) {
+                    get(done);
+                }
+            }
+        } finally {
+            current.close();
+        }
+
+        File temporary = new File(directory, "layer-" + (depth + 1) + ".tmp");
+        long count = merge(runs, depth, temporary);
+
+        rename(temporary, layer(depth + 1));
+
+        return count;
+    }
+
+    private static void get(Future<File> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /*
+     * the successors of a chunk of states, sorted and distinct, written to a run
+     */
+    private class Expansion implements Callable<File> {
+        private final long[] chunk;
+        private final int size;
+        private final File run;
+
+        private Expansion(long[] chunk, int size, File run) {
+            this.chunk = chunk;
+            this.size = size;
+            this.run = run;
+        }
+
+        public File call() throws IOException {
+            long[] successors = new long[4 * size];
+            int count = 0;
+            int[] positions = new int[cells];
+            int[] tiles = new int[cells];
+
+            for (int i = 0; i < size; i++) {
+                PatternDatabase.unrank(chunk[i], positions, cells, cells);
+                int empty = positions[0];
+
+                for (int tile = 0; tile < cells; tile++) {
+                    tiles[positions[tile]] = tile;
+                }
+
+                for (int from : neighbours[empty]) {
+                    int tile = tiles[from];
+
+                    positions[0] = from;
+                    positions[tile] = empty;
+                    successors[count++] = PatternDatabase.rank(positions, cells, cells);
+                    positions[tile] = from;
+                    positions[0] = empty;
+                }
+            }
+
+            Arrays.sort(successors, 0, count);
+
+            SortedRankFile.Writer writer = new SortedRankFile.Writer(run, rows, columns, -1);
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (i == 0 || successors[i] != successors[i - 1]) writer.add(successors[i]);
+                }
+            } finally {
+                writer.close();
+            }
+
+            return run;
+        }
+    }
+
+    /*
+     * the union of the runs, less the states of layers depth and depth - 1, to target; the runs are
+     * deleted
+     */
+    private long merge(List<File> runs, int depth, File target) throws IOException {
+        for (int pass = 0; runs.size() > MERGE_FAN_IN; pass++) {
+            List<File> merged = new ArrayList<File>();
+
+            for (int from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+                List<File> group = runs.subList(from, Math.min(from + MERGE_FAN_IN, runs.size()));
+                File run = new File(directory, "run-" + (depth + 1) + "-" + pass + "-" + merged.size() + ".tmp");
+                SortedRankFile.Writer writer = new SortedRankFile.Writer(run, rows, columns, -1);
+
+                try {
+                    union(group, writer, null, null);
+                } finally {
+                    writer.close();
+                }
+
+                delete(group);
+                merged.add(run);
+            }
+
+            runs = merged;
+        }
+
+        SortedRankFile.Writer writer = new SortedRankFile.Writer(target, rows, columns, depth + 1);
+        SortedRankFile.Reader current = null;
+        SortedRankFile.Reader previous = null;
+
+        try {
+            current = new SortedRankFile.Reader(layer(depth));
+            current.next();
+
+            if (depth > 0) {
+                previous = new SortedRankFile.Reader(layer(depth - 1));
+                previous.next();
+            }
+
+            union(runs, writer, current, previous);
+        } finally {
+            writer.close();
+
+            if (current != null) current.close();
+            if (previous != null) previous.close();
+        }
+
+        delete(runs);
+
+        return writer.getCount();
+    }
+
+    /*
+     * the distinct ranks of the runs to writer, less those of the layers current and previous
+     * (either may be null, see contains)
+     */
+    private static void union(List<File> runs, SortedRankFile.Writer writer, SortedRankFile.Reader current,
+                              SortedRankFile.Reader previous) throws IOException {
+        PriorityQueue<SortedRankFile.Reader> queue = new PriorityQueue<SortedRankFile.Reader>(Math.max(1, runs.size()),
+            new Comparator<SortedRankFile.Reader>() {
+                public int compare(SortedRankFile.Reader a, SortedRankFile.Reader b) {
+                    return Long.compare(a.last(), b.last());
+                }
+            });
+        List<SortedRankFile.Reader> open = new ArrayList<SortedRankFile.Reader>();
+
+        try {
+            for (File run : runs) {
+                SortedRankFile.Reader reader = new SortedRankFile.Reader(run);
+                open.add(reader);
+
+                if (reader.hasNext()) {
+                    reader.next();
+                    queue.add(reader);
+                }
+            }
+
+            long last = -1;
+
+            while (!queue.isEmpty()) {
+                SortedRankFile.Reader reader = queue.poll();
+                long rank = reader.last();
+
+                if (reader.hasNext()) {
+                    reader.next();
+                    queue.add(reader);
+                }
+
+                if (rank == last) continue;
+
+                last = rank;
+
+                if (!contains(current, rank) && !contains(previous, rank)) writer.add(rank);
+            }
+        } finally {
+            for (SortedRankFile.Reader reader : open) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void delete(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    /*
+     * whether a layer read in ascending steps holds rank, reading on up to it; the layer has been
+     * read to its first rank
+     */
+    private static boolean contains(SortedRankFile.Reader layer, long rank) throws IOException {
+        if (layer == null) return false;
+
+        while (layer.last() < rank && layer.hasNext()) {
+            layer.next();
+        }
+
+        return layer.last() == rank;
+    }
+
+    private static void rename(File from, File to) throws IOException {
+        if (!from.renameTo(to)) throw new IOException("Cannot rename " + from + " to " + to);
+    }
+
+    private void writeResults(long[] histogram) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(new File(directory, "histogram.txt")));
+
+        try {
+            for (int depth = 0; depth < histogram.length; depth++) {
+                writer.println(depth + " " + histogram[depth]);
+            }
+        } finally {
+            writer.close();
+        }
+
+        if (PatternDatabase.entries(cells, cells) > DistanceTable.MAX_ENTRIES) return;
+
+        MappedByteBuffer table = DistanceTable.create(new File(directory, "distances.dst"), rows, columns);
+
+        for (int depth = 0; depth < histogram.length; depth++) {
+            SortedRankFile.Reader reader = new SortedRankFile.Reader(layer(depth));
+
+            try {
+                while (reader.hasNext()) {
+                    table.put(DistanceTable.HEADER_BYTES + (int) reader.next(), (byte) depth);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        table.force();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : rows;
+        File directory = new File(args.length > 2 ? args[2] : "bfs-" + rows + "x" + columns);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxDepth = args.length > 4 ? Integer.parseInt(args[4]) : Integer.MAX_VALUE;
+
+        long start = System.nanoTime();
+        long[] histogram = new ExternalBFS(rows, columns, directory, threads).search(maxDepth);
+        long total = 0;
+
+        for (int depth = 0; depth < histogram.length; depth++) {
+            System.out.println(depth + " " + histogram[depth]);
+            total += histogram[depth];
+        }
+
+        System.out.printf("%d states to depth %d in %.1f s%n", total, histogram.length - 1, (System.nanoTime() - start) / 1e9);
+    }
+}
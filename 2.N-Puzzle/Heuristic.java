@@ -0,0 +1,10 @@
+/*
+ Lower bound on the number of moves left, for the informed solvers. tiles holds the tile at every
+ position in reading order, 0 for the empty position. Implementations are shared between threads.
+ */
+interface Heuristic {
+    // tiles are bytes, and so are positions in most solvers: 11 x 11 is the largest board they hold
+    int MAX_DIMENSION = 11;
+
+    int estimate(byte[] tiles);
+}
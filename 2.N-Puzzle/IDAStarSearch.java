@@ -0,0 +1,256 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ Iterative deepening A* on one board kept in a byte array (the tile at every position, 0 for the
+ empty one) and changed in place: a move slides a tile into the empty position on the way down and
+ back on the way up. Each round is a depth first search that cuts off states whose moves + estimate
+ exceed the bound, and the next bound is the smallest such value that was cut off, so the first
+ solution found is a shortest one.
+
+ The move that would undo the move into a state is never tried. Without a Heuristic the estimate is
+ the Manhattan distance, updated from the parent's for the one tile that moves; with one, the
+ heuristic is asked after every move (a PatternDatabase with a scratch array of this search).
+
+ Not safe to share between threads, every search needs its own. ParallelIDAStarSolver runs many
+ of them on subtrees of one round (searchFrom), with a shared flag that stops them all.
+ */
+class IDAStarSearch {
+    // the two outcomes are told apart by value, search returns the first and searchFrom the second
+    static final int NOT_FOUND = -2;
+    static final int FOUND = -1;
+
+    private final int dimension;
+    private final int size;
+    private final Heuristic heuristic;
+    // the heuristic when it is a PatternDatabase, and its scratch array
+    private final PatternDatabase database;
+    private final int[] positions;
+    // manhattan[tile * size + position]
+    private final int[] manhattan;
+    private final int[][] moves;
+    private final byte[] goal;
+    private byte[] tiles;
+    // empty position after every move of the current path
+    private int[] path = new int[256];
+    private int solutionLength;
+    private long nodes;
+    private AtomicBoolean stop;
+    private boolean timed;
+    private long deadline;
+    private boolean outOfTime;
+
+    public IDAStarSearch(int dimension) {
+        this(dimension, null);
+    }
+
+    public IDAStarSearch(int dimension, Heuristic heuristic) {
+        PackedState codec = new PackedState(dimension);
+        int[][] distances = ManhattanHeuristic.distances(dimension);
+
+        this.dimension = dimension;
+        this.size = dimension * dimension;
+        this.heuristic = heuristic;
+        this.database = heuristic instanceof PatternDatabase ? (PatternDatabase) heuristic : null;
+        this.positions = new int[size];
+        this.manhattan = new int[size * size];
+        this.moves = new int[size][];
+        this.goal = new byte[size];
+
+        for (int position = 0; position < size; position++) {
+            moves[position] = codec.moves(position);
+            goal[position] = (byte) ((position + 1) % size);
+
+            for (int tile = 0; tile < size; tile++) {
+                manhattan[tile * size + position] = distances[tile][position];
+            }
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /*
+     * number of moves of a shortest solution, or NOT_FOUND when the bound passes maxBound;
+     * tiles are left as they were
+     */
+    public int search(byte[] tiles, int maxBound) {
+        this.tiles = tiles;
+        this.nodes = 0;
+        this.outOfTime = false;
+
+        int empty = 0;
+
+        while (tiles[empty] != 0) {
+            empty++;
+        }
+
+        int estimate = estimate();
+
+        for (int bound = estimate; bound <= maxBound; ) {
+            int next = search(empty, -1, 0, estimate, bound);
+
+            if (next == FOUND) return solutionLength;
+            if (next == Integer.MAX_VALUE) break;
+
+            bound = next;
+        }
+
+        return NOT_FOUND;
+    }
+
+    public int search(byte[] tiles) {
+        return search(tiles, Integer.MAX_VALUE - 1);
+    }
+
+    /*
+     * System.nanoTime() after which searches return as if they found nothing more; a deadline
+     * other than the current one also clears the out of time state, so a search can be reused
+     */
+    void setDeadline(long deadline) {
+        if (!timed || deadline != this.deadline) outOfTime = false;
+
+        this.timed = true;
+        this.deadline = deadline;
+    }
+
+    /*
+     * no deadline from now on
+     */
+    void clearDeadline() {
+        this.timed = false;
+        this.outOfTime = false;
+    }
+
+    public boolean isOutOfTime() {
+        return outOfTime;
+    }
+
+    /*
+     * once set, every search in progress returns as if it found nothing more
+     */
+    void setStop(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    /*
+     * one round below a state reached by the moves in prefix (see getSolution), whose empty tile came
+     * from previous: FOUND, or the smallest moves + estimate above bound; adds to the node count
+     */
+    int searchFrom(byte[] tiles, int[] prefix, int previous, int estimate, int bound) {
+        int empty = 0;
+
+        while (tiles[empty] != 0) {
+            empty++;
+        }
+
+        this.tiles = tiles;
+
+        if (prefix.length >= path.length) path = Arrays.copyOf(path, 2 * prefix.length);
+
+        System.arraycopy(prefix, 0, path, 0, prefix.length);
+
+        return search(empty, previous, prefix.length, estimate, bound);
+    }
+
+    /*
+     * the estimate of the heuristic of this search for tiles
+     */
+    int estimate(byte[] tiles) {
+        this.tiles = tiles;
+
+        return estimate();
+    }
+
+    /*
+     * positions of the empty tile after each move of the last solution
+     */
+    public int[] getSolution() {
+        return Arrays.copyOf(path, solutionLength);
+    }
+
+    /*
+     * states expanded by the last search, over all rounds
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int estimate() {
+        if (database != null) return database.estimate(tiles, positions);
+
+        if (heuristic != null) return heuristic.estimate(tiles);
+
+        int estimate = 0;
+
+        for (int position = 0; position < size; position++) {
+            estimate += manhattan[tiles[position] * size + position];
+        }
+
+        return estimate;
+    }
+
+    /*
+     * FOUND, or the smallest moves + estimate above bound below this state
+     */
+    private int search(int empty, int previous, int moves, int estimate, int bound) {
+        if (estimate == 0 && isGoal()) {
+            solutionLength = moves;
+
+            return FOUND;
+        }
+
+        if (outOfTime || stop != null && stop.get()) return Integer.MAX_VALUE;
+
+        if ((++nodes & 0xFFFF) == 0 && timed && System.nanoTime() - deadline > 0) outOfTime = true;
+
+        if (moves == path.length) path = Arrays.copyOf(path, 2 * moves);
+
+        int min = Integer.MAX_VALUE;
+
+        for (int from : this.moves[empty]) {
+            if (from == previous) continue;
+
+            int tile = tiles[from];
+
+            tiles[empty] = (byte) tile;
+            tiles[from] = 0;
+
+            int nextEstimate = heuristic == null
+                ? estimate - manhattan[tile * size + from] + manhattan[tile * size + empty]
+                : estimate();
+            int f = moves + 1 + nextEstimate;
+
+            if (f > bound) {
+                if (f < min) min = f;
+            } else {
+                path[moves] = from;
+
+                int next = search(from, empty, moves + 1, nextEstimate, bound);
+
+                if (next == FOUND) {
+                    tiles[from] = (byte) tile;
+                    tiles[empty] = 0;
+
+                    return FOUND;
+                }
+
+                if (next < min) min = next;
+            }
+
+            tiles[from] = (byte) tile;
+            tiles[empty] = 0;
+        }
+
+        return min;
+    }
+
+    private boolean isGoal() {
+        for (int position = 0; position < size; position++) {
+            if (tiles[position] != goal[position]) return false;
+        }
+
+        return true;
+    }
+}
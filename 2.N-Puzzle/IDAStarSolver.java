@@ -1,44 +1,31 @@
-import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
-
+/*
+ Shortest solutions by IDAStarSearch, Manhattan distance unless given another Heuristic.
+ */
 class IDAStarSolver extends SlidingPuzzleSolver {
-    private Set<List<Integer>> visited;
-
-    public BoardState solvePuzzle(Board board) {
-        visited = new HashSet<List<Integer>>();
-        BoardState currentState = initBoardState(board);
-        BoardState finalState = null;
-        int depthLimit = currentState.getDistance();
-        
-        while ((finalState = findSolution(currentState, depthLimit)) == null) {
-            depthLimit += 5;
-        }
+    private final Heuristic heuristic;
 
-        return finalState;
+    public IDAStarSolver() {
+        this(null);
     }
 
-    private BoardState findSolution(BoardState currentState, int depthLimit) {
-        if (isSolved(currentState)) {
-            return currentState;
-        }
+    public IDAStarSolver(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
 
-        BoardState finalState = null;
+    public BoardState solvePuzzle(Board board) {
+        IDAStarSearch search = new IDAStarSearch(board.getDimension(), heuristic);
 
-        visited.add(currentState.getBoard().getValues());
+        if (getTimeLimit() > 0) search.setDeadline(getDeadline());
 
-        for (BoardState nextState : generatePossibleMoves(currentState)) {
-            if (nextState == null || visited.contains(nextState.getBoard().getValues()) || nextState.getMoves() + nextState.getDistance() > depthLimit) continue;
+        int length = search.search(toTiles(board));
+        expandedNodes = search.getNodes();
 
-            finalState = findSolution(nextState, depthLimit);
+        if (length == IDAStarSearch.NOT_FOUND) {
+            outOfTime();
 
-            if (finalState != null) {
-                return finalState;
-            }
+            return null;
         }
 
-        visited.remove(currentState.getBoard().getValues());
-
-        return null;
+        return replay(board, search.getSolution());
     }
 }
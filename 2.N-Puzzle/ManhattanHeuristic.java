@@ -0,0 +1,62 @@
+/*
+ Sum of the Manhattan distances of the tiles from their goal positions, or from their positions on
+ another target board.
+ */
+class ManhattanHeuristic implements Heuristic {
+    private final int[][] distances;
+
+    public ManhattanHeuristic(int dimension) {
+        this.distances = distances(dimension);
+    }
+
+    /*
+     * distances to target, the tile at every position as in Heuristic
+     */
+    public ManhattanHeuristic(int dimension, byte[] target) {
+        this.distances = distances(dimension, target);
+    }
+
+    /*
+     * distances[tile][position], 0 for the empty tile
+     */
+    static int[][] distances(int dimension) {
+        int size = dimension * dimension;
+        byte[] goal = new byte[size];
+
+        for (int position = 0; position < size; position++) {
+            goal[position] = (byte) ((position + 1) % size);
+        }
+
+        return distances(dimension, goal);
+    }
+
+    static int[][] distances(int dimension, byte[] target) {
+        SlidingPuzzleSolver.checkDimension(dimension);
+
+        int size = dimension * dimension;
+        int[][] distances = new int[size][size];
+
+        for (int targetPosition = 0; targetPosition < size; targetPosition++) {
+            int tile = target[targetPosition];
+
+            if (tile == 0) continue;
+
+            for (int position = 0; position < size; position++) {
+                distances[tile][position] = Math.abs(position / dimension - targetPosition / dimension)
+                    + Math.abs(position % dimension - targetPosition % dimension);
+            }
+        }
+
+        return distances;
+    }
+
+    public int estimate(byte[] tiles) {
+        int distance = 0;
+
+        for (int position = 0; position < tiles.length; position++) {
+            distance += distances[tiles[position]][position];
+        }
+
+        return distance;
+    }
+}
@@ -1,53 +1,47 @@
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Scanner;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 class NPuzzle {
     private Board board;
     private NPuzzleSolver solver;
 
-    public NPuzzle(String fileName) {
+    public NPuzzle(String fileName) throws IOException {
         board = buildBoard(fileName);
         solver = new DFSSolver();
         //solver = new BFSSolver();
         //solver = new AStarSolver();
         //solver = new IDAStarSolver();
+        //solver = new BidirectionalBFSSolver();
+        //solver = new BidirectionalAStarSolver();
     }
 
-    private Board buildBoard(String fileName) {
-        String input = "";
-
-        try {
-            BufferedReader bufferedReader = new BufferedReader(new FileReader(fileName));
-            String line;
-            StringBuilder stringBuilder = new StringBuilder();
-            
-            while ((line = bufferedReader.readLine()) != null) {
-                stringBuilder.append(line);
-                stringBuilder.append(" ");
-            }
+    /*
+     * IDA* on the pattern database in databaseFile (see PatternDatabaseBuilder)
+     */
+    public NPuzzle(String fileName, String databaseFile) throws IOException {
+        board = buildBoard(fileName);
+        PatternDatabase database = PatternDatabase.load(databaseFile);
 
-            input = stringBuilder.toString();
-            bufferedReader.close();
-        } catch (IOException e) {
-            System.out.println(e.getMessage());
+        if (database.getDimension() != board.getDimension()) {
+            throw new IOException(databaseFile + " is for " + database.getDimension() + "x" + database.getDimension() + " boards");
         }
 
-        Integer dimension = 0;
-        Scanner scanner = new Scanner(input);
+        solver = new IDAStarSolver(database);
+        //solver = new AStarSolver(database);
+    }
 
-        // TODO: error handling for incorrect input file
-        dimension = scanner.nextInt();
-        List<Integer> values = new ArrayList<Integer>(dimension * dimension);
+    private Board buildBoard(String fileName) throws IOException {
+        PuzzleParser parser = PuzzleParser.open(fileName);
 
-        for (int i = 0, sz = dimension * dimension; i < sz; i++) {
-            values.add(i, scanner.nextInt());
-        }
+        try {
+            Board board = parser.next();
 
-        return new Board(dimension, values);
+            if (board == null) throw new IOException(fileName + " holds no board");
+
+            return board;
+        } finally {
+            parser.close();
+        }
     }
 
     public void solve() throws NPuzzleBoardIsNotSolvableException {
@@ -66,8 +60,11 @@ class NPuzzle {
         }
     }
 
-    public static void main(String[] args) throws NPuzzleBoardIsNotSolvableException {
-        assert(args[0] != null); // TODO: requires correct input handling
-        new NPuzzle(args[0]).solve();
+    /*
+     * java NPuzzle [board file] [pattern database file, optional]
+     */
+    public static void main(String[] args) throws NPuzzleBoardIsNotSolvableException, IOException {
+        NPuzzle puzzle = args.length > 1 ? new NPuzzle(args[0], args[1]) : new NPuzzle(args[0]);
+        puzzle.solve();
     }
 }
@@ -0,0 +1,229 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ Solves every board of a PuzzleParser input on a pool of threads, each board with a solver of its
+ own and at most the given time. Results are written in input order, one line per board as CSV
+ (with a header) or JSON: the board number, its dimension, the status (solved, timeout,
+ unsolvable, invalid, not found or error), the moves of the solution, the states expanded and the
+ time taken. A board whose solver fails, even out of memory, gets an error row and the batch goes
+ on. Totals go to stderr.
+
+ Usage: java NPuzzleBatch [boards file, - for stdin] [threads] [seconds per board, 0 for no limit]
+                          [solver: ida, astar, bfs, bibfs, mm or dfs] [format: csv or json]
+                          [pattern database file, used for boards of its dimension]
+ */
+class NPuzzleBatch {
+    private static final int BOARDS_IN_FLIGHT_PER_THREAD = 16;
+    private static final String[] SOLVERS = {"ida", "astar", "bfs", "bibfs", "mm", "dfs"};
+
+    private final String solverName;
+    private final PatternDatabase database;
+    private final int threads;
+    private final long timeLimit;
+    private final boolean json;
+    private long solved, timeouts;
+
+    /*
+     * timeLimit in nanoseconds per board, 0 for none; database may be null
+     */
+    public NPuzzleBatch(String solverName, PatternDatabase database, int threads, long timeLimit, boolean json) {
+        if (!Arrays.asList(SOLVERS).contains(solverName)) throw new IllegalArgumentException("Unknown solver " + solverName);
+
+        this.solverName = solverName;
+        this.database = database;
+        this.threads = threads;
+        this.timeLimit = timeLimit;
+        this.json = json;
+    }
+
+    public long getSolved() {
+        return solved;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    private SlidingPuzzleSolver newSolver(int dimension) {
+        Heuristic heuristic = database != null && database.getDimension() == dimension ? database : null;
+
+        if (solverName.equals("astar")) return new AStarSolver(heuristic);
+        if (solverName.equals("bfs")) return new BFSSolver();
+        if (solverName.equals("bibfs")) return new BidirectionalBFSSolver();
+        if (solverName.equals("mm")) return new BidirectionalAStarSolver(heuristic);
+        if (solverName.equals("dfs")) return new DFSSolver();
+
+        return new IDAStarSolver(heuristic);
+    }
+
+    public long run(PuzzleParser input, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<String>> pending = new ArrayDeque<Future<String>>();
+        int window = threads * BOARDS_IN_FLIGHT_PER_THREAD;
+        long boards = 0;
+        IOException badInput = null;
+
+        if (!json) writeLine(output, "board,dimension,status,moves,nodes,ms");
+
+        try {
+            while (true) {
+                Board board;
+
+                try {
+                    board = input.next();
+                } catch (IOException e) {
+                    // the boards before the bad input still get their results
+                    badInput = e;
+                    break;
+                }
+
+                if (board == null) break;
+
+                // bounded look-ahead keeps memory flat while still writing results in input order
+                if (pending.size() == window) {
+                    writeLine(output, get(pending.removeFirst()));
+                }
+
+                pending.addLast(executor.submit(new SolveTask(++boards, board)));
+            }
+
+            while (!pending.isEmpty()) {
+                writeLine(output, get(pending.removeFirst()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        output.flush();
+
+        if (badInput != null) throw badInput;
+
+        return boards;
+    }
+
+    private static String get(Future<String> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void writeLine(Writer output, String line) throws IOException {
+        output.write(line);
+        output.write(System.lineSeparator());
+    }
+
+    private synchronized void count(String status) {
+        if (status.equals("solved")) solved++;
+        if (status.equals("timeout")) timeouts++;
+    }
+
+    private class SolveTask implements Callable<String> {
+        private final long number;
+        private final Board board;
+
+        private SolveTask(long number, Board board) {
+            this.number = number;
+            this.board = board;
+        }
+
+        public String call() {
+            SlidingPuzzleSolver solver = newSolver(board.getDimension());
+            String status;
+            int moves = -1;
+            long start = System.nanoTime();
+
+            solver.setTimeLimit(timeLimit);
+
+            try {
+                if (!isPermutation(board)) {
+                    status = "invalid";
+                } else {
+                    List<Board> solution = solver.solve(board);
+
+                    if (solution != null) {
+                        status = "solved";
+                        moves = solution.size() - 1;
+                    } else {
+                        status = solver.isOutOfTime() ? "timeout" : "not found";
+                    }
+                }
+            } catch (NPuzzleBoardIsNotSolvableException e) {
+                status = "unsolvable";
+            } catch (StackOverflowError e) {
+                // DFSSolver recurses once per move of its path, a long path must not end the batch
+                status = "not found";
+            } catch (Throwable e) {
+                // whatever one solver runs into is that board's result, not the end of the batch
+                status = "error";
+            }
+
+            double millis = (System.nanoTime() - start) / 1e6;
+            long nodes = solver.getExpandedNodes();
+
+            count(status);
+
+            if (json) {
+                return String.format(Locale.ROOT, "{\"board\":%d,\"dimension\":%d,\"status\":\"%s\",\"moves\":%d,\"nodes\":%d,\"ms\":%.3f}",
+                    number, board.getDimension(), status, moves, nodes, millis);
+            }
+
+            return String.format(Locale.ROOT, "%d,%d,%s,%d,%d,%.3f", number, board.getDimension(), status, moves, nodes, millis);
+        }
+    }
+
+    /*
+     * whether the tiles are 0 to dimension * dimension - 1, each once
+     */
+    private static boolean isPermutation(Board board) {
+        int size = board.getDimension() * board.getDimension();
+        boolean[] seen = new boolean[size];
+
+        for (int value : board.getValues()) {
+            if (value >= size || seen[value]) return false;
+
+            seen[value] = true;
+        }
+
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String fileName = args.length > 0 ? args[0] : "-";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        String solverName = args.length > 3 ? args[3] : "ida";
+        boolean json = args.length > 4 && args[4].equals("json");
+        PatternDatabase database = args.length > 5 ? PatternDatabase.load(args[5]) : null;
+
+        long start = System.nanoTime();
+        PuzzleParser input = PuzzleParser.open(fileName);
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out));
+        NPuzzleBatch batch = new NPuzzleBatch(solverName, database, threads, (long) (seconds * 1e9), json);
+        long boards;
+
+        try {
+            boards = batch.run(input, output);
+        } finally {
+            input.close();
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Solved %d of %d boards (%d out of time) in %.2f s on %d threads (%.1f boards/second)%n",
+            batch.getSolved(), boards, batch.getTimeouts(), elapsed, threads, boards / elapsed);
+    }
+}
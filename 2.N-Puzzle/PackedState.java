@@ -0,0 +1,152 @@
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ Boards of one dimension packed into longs, tile by tile from the lowest bits up. Up to the
+ 15-puzzle a tile takes 4 bits and a whole board fits one long; larger boards use as many bits
+ as their largest tile needs and spill into more longs, never splitting a tile between two.
+
+ States live in long arrays at an offset (see PackedStateSet), so moving a tile writes into an
+ existing array and allocates nothing.
+ */
+class PackedState {
+    private final int dimension;
+    private final int size;
+    private final int bitsPerTile;
+    private final int tilesPerWord;
+    private final int words;
+    private final long tileMask;
+    // target positions of the tile moved into the empty position, North, East, South, West as in MoveDirection
+    private final int[][] moves;
+
+    public PackedState(int dimension) {
+        this.dimension = dimension;
+        this.size = dimension * dimension;
+        this.bitsPerTile = Math.max(4, 32 - Integer.numberOfLeadingZeros(size - 1));
+        this.tilesPerWord = 64 / bitsPerTile;
+        this.words = (size + tilesPerWord - 1) / tilesPerWord;
+        this.tileMask = (1L << bitsPerTile) - 1;
+        this.moves = new int[size][];
+
+        for (int empty = 0; empty < size; empty++) {
+            int row = empty / dimension, col = empty % dimension;
+            int[] targets = new int[4];
+            int count = 0;
+
+            if (row > 0) targets[count++] = empty - dimension;
+            if (col < dimension - 1) targets[count++] = empty + 1;
+            if (row < dimension - 1) targets[count++] = empty + dimension;
+            if (col > 0) targets[count++] = empty - 1;
+
+            moves[empty] = Arrays.copyOf(targets, count);
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /*
+     * longs per state
+     */
+    public int words() {
+        return words;
+    }
+
+    /*
+     * positions whose tile can slide into the empty position
+     */
+    public int[] moves(int empty) {
+        return moves[empty];
+    }
+
+    public void encode(List<Integer> values, long[] state, int offset) {
+        for (int i = 0; i < words; i++) {
+            state[offset + i] = 0;
+        }
+
+        for (int position = 0; position < size; position++) {
+            setTile(state, offset, position, values.get(position));
+        }
+    }
+
+    /*
+     * the solved board: 1, 2, ..., size - 1 and the empty tile last
+     */
+    public void encodeGoal(long[] state, int offset) {
+        for (int i = 0; i < words; i++) {
+            state[offset + i] = 0;
+        }
+
+        for (int position = 0; position < size - 1; position++) {
+            setTile(state, offset, position, position + 1);
+        }
+    }
+
+    public List<Integer> decode(long[] state, int offset) {
+        List<Integer> values = new ArrayList<Integer>(size);
+
+        for (int position = 0; position < size; position++) {
+            values.add(tile(state, offset, position));
+        }
+
+        return values;
+    }
+
+    /*
+     * the tile at every position, see Heuristic
+     */
+    public void toTiles(long[] state, int offset, byte[] tiles) {
+        for (int position = 0; position < size; position++) {
+            tiles[position] = (byte) tile(state, offset, position);
+        }
+    }
+
+    public Board toBoard(long[] state, int offset) {
+        return new Board(dimension, decode(state, offset));
+    }
+
+    public int tile(long[] state, int offset, int position) {
+        int word = position / tilesPerWord;
+        int shift = (position - word * tilesPerWord) * bitsPerTile;
+
+        return (int) ((state[offset + word] >>> shift) & tileMask);
+    }
+
+    public void setTile(long[] state, int offset, int position, int tile) {
+        int word = position / tilesPerWord;
+        int shift = (position - word * tilesPerWord) * bitsPerTile;
+
+        state[offset + word] = (state[offset + word] & ~(tileMask << shift)) | ((long) tile << shift);
+    }
+
+    public int emptyPosition(long[] state, int offset) {
+        for (int position = 0; position < size; position++) {
+            if (tile(state, offset, position) == 0) return position;
+        }
+
+        return -1;
+    }
+
+    /*
+     * copies the state to target with the tile at from slid into the empty position, returns the moved tile
+     */
+    public int move(long[] state, int offset, long[] target, int targetOffset, int empty, int from) {
+        int tile = tile(state, offset, from);
+
+        System.arraycopy(state, offset, target, targetOffset, words);
+        setTile(target, targetOffset, empty, tile);
+        setTile(target, targetOffset, from, 0);
+
+        return tile;
+    }
+
+    public boolean equals(long[] state, int offset, long[] other, int otherOffset) {
+        for (int i = 0; i < words; i++) {
+            if (state[offset + i] != other[otherOffset + i]) return false;
+        }
+
+        return true;
+    }
+}
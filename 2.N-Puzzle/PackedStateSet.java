@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/*
+ Set of packed states (see PackedState) with open addressing. States are copied into one growing
+ long array in the order they are added and known by that index, their id, so callers keep
+ whatever they need per state (parent, moves, ...) in arrays of their own indexed by id. The hash
+ table holds id + 1 per slot, 0 for a free slot, and is kept at most half full with linear probing.
+
+ One state of the 15-puzzle takes a long in the arena and two ints of table, about 16 bytes.
+
+ removeLast takes back the last added state, which is all a path of a depth first search needs:
+ any state probing past its slot was added after it and so is already gone.
+ */
+class PackedStateSet {
+    static final int NONE = -1;
+
+    private final int words;
+    private long[] states;
+    private int[] table;
+    private int size = 0;
+
+    public PackedStateSet(int words) {
+        this(words, 1024);
+    }
+
+    public PackedStateSet(int words, int expectedSize) {
+        this.words = words;
+        this.states = new long[Math.max(16, expectedSize) * words];
+        this.table = new int[tableSize(expectedSize)];
+    }
+
+    private static int tableSize(int expectedSize) {
+        return Integer.highestOneBit(Math.max(16, 2 * expectedSize - 1)) << 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /*
+     * the arena, state id starts at id * words(); only valid until the next add
+     */
+    public long[] states() {
+        return states;
+    }
+
+    public int words() {
+        return words;
+    }
+
+    /*
+     * id of the added state, NONE when it was already in the set
+     */
+    public int add(long[] state, int offset) {
+        int slot = find(state, offset);
+
+        if (table[slot] != 0) return NONE;
+
+        if (2 * (size + 1) > table.length) {
+            grow();
+            slot = find(state, offset);
+        }
+
+        if ((size + 1) * words > states.length) {
+            states = Arrays.copyOf(states, 2 * states.length);
+        }
+
+        System.arraycopy(state, offset, states, size * words, words);
+        table[slot] = ++size;
+
+        return size - 1;
+    }
+
+    public int indexOf(long[] state, int offset) {
+        return table[find(state, offset)] - 1;
+    }
+
+    public boolean contains(long[] state, int offset) {
+        return table[find(state, offset)] != 0;
+    }
+
+    public void removeLast() {
+        table[find(states, (size - 1) * words)] = 0;
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    /*
+     * slot of the state, or the free slot where it would go
+     */
+    private int find(long[] state, int offset) {
+        int mask = table.length - 1;
+
+        for (int slot = hash(state, offset) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+
+            if (id < 0 || equal(id, state, offset)) return slot;
+        }
+    }
+
+    private boolean equal(int id, long[] state, int offset) {
+        int start = id * words;
+
+        for (int i = 0; i < words; i++) {
+            if (states[start + i] != state[offset + i]) return false;
+        }
+
+        return true;
+    }
+
+    private int hash(long[] state, int offset) {
+        long hash = 0;
+
+        for (int i = 0; i < words; i++) {
+            hash = (hash + state[offset + i]) * 0x9E3779B97F4A7C15L;
+        }
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void grow() {
+        table = new int[2 * table.length];
+        int mask = table.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = hash(states, id * words) & mask;
+
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ IDA* with every round spread over a ForkJoinPool. The search tree is first expanded breadth first
+ (never undoing the parent move) until a level has at least frontierSize states; those states are
+ the subproblems of every round. A round forks over halves of the frontier down to single states,
+ so idle threads steal whole ranges of subtrees, and each subtree is an IDAStarSearch.searchFrom
+ with the round's bound.
+
+ Any solution a round finds is a shortest one (the previous round found none), so the first thread
+ to find one raises a shared flag that stops the others. Otherwise the next bound is the smallest
+ value cut off anywhere in the round, as in IDAStarSearch, and the move count equals the
+ sequential solver's.
+
+ Usage: java ParallelIDAStarSolver [dimension] [instances] [pattern database file, - for Manhattan]
+ measures the speedup on 1, 2, 4, 8 and 16 threads against the sequential IDAStarSearch.
+ */
+class ParallelIDAStarSolver extends SlidingPuzzleSolver {
+    private static final int DEFAULT_FRONTIER_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final Heuristic heuristic;
+    private final int frontierSize;
+    // the node count of the current solve, added to from every worker
+    private final AtomicLong nodes = new AtomicLong();
+    // one search per worker thread, kept across solves: its tables are too large to build per solve
+    private final ThreadLocal<IDAStarSearch> searches = new ThreadLocal<IDAStarSearch>();
+    private int dimension;
+
+    /*
+     * on the common pool
+     */
+    public ParallelIDAStarSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /*
+     * the pool stays the caller's to shut down
+     */
+
+    public ParallelIDAStarSolver(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    public ParallelIDAStarSolver(ForkJoinPool pool, Heuristic heuristic) {
+        this(pool, heuristic, DEFAULT_FRONTIER_SIZE);
+    }
+
+    public ParallelIDAStarSolver(ForkJoinPool pool, Heuristic heuristic, int frontierSize) {
+        this.pool = pool;
+        this.heuristic = heuristic;
+        this.frontierSize = frontierSize;
+    }
+
+    /*
+     * the states of the frontier, one per subproblem
+     */
+    private static class Frontier {
+        private final List<byte[]> tiles = new ArrayList<byte[]>();
+        private final List<int[]> prefixes = new ArrayList<int[]>();
+        private final List<Integer> previous = new ArrayList<Integer>();
+        private final List<Integer> estimates = new ArrayList<Integer>();
+
+        private void add(byte[] state, int[] prefix, int from, int estimate) {
+            tiles.add(state);
+            prefixes.add(prefix);
+            previous.add(from);
+            estimates.add(estimate);
+        }
+
+        private int size() {
+            return tiles.size();
+        }
+    }
+
+    private class Round {
+        private final Frontier frontier;
+        private final int bound;
+        private final AtomicBoolean solved = new AtomicBoolean();
+        private volatile int[] solution;
+
+        private Round(Frontier frontier, int bound) {
+            this.frontier = frontier;
+            this.bound = bound;
+        }
+
+        /*
+         * FOUND or the next bound
+         */
+        private int run() {
+            return pool.invoke(new RoundTask(this, 0, frontier.size()));
+        }
+
+        private int searchFrom(int index, IDAStarSearch search) {
+            int[] prefix = frontier.prefixes.get(index);
+            int estimate = frontier.estimates.get(index);
+            int f = prefix.length + estimate;
+
+            if (f > bound) return f;
+
+            // every subtree searches its own copy, the frontier is shared by all rounds
+            byte[] tiles = frontier.tiles.get(index).clone();
+            int result = search.searchFrom(tiles, prefix, frontier.previous.get(index), estimate, bound);
+
+            if (result == IDAStarSearch.FOUND && solved.compareAndSet(false, true)) {
+                solution = search.getSolution();
+            }
+
+            return result;
+        }
+    }
+
+    private class RoundTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Round round;
+        private final int from, to;
+
+        private RoundTask(Round round, int from, int to) {
+            this.round = round;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (round.solved.get()) return Integer.MAX_VALUE;
+
+            if (to - from == 1) {
+                IDAStarSearch search = search();
+                search.setStop(round.solved);
+                long before = search.getNodes();
+
+                int result = round.searchFrom(from, search);
+                nodes.addAndGet(search.getNodes() - before);
+
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            RoundTask left = new RoundTask(round, from, middle);
+            RoundTask right = new RoundTask(round, middle, to);
+
+            left.fork();
+            int rightResult = right.compute();
+            int leftResult = left.join();
+
+            if (leftResult == IDAStarSearch.FOUND || rightResult == IDAStarSearch.FOUND) return IDAStarSearch.FOUND;
+
+            return Math.min(leftResult, rightResult);
+        }
+    }
+
+    /*
+     * the search of the current thread for the board of the current solve, set to its deadline
+     */
+    private IDAStarSearch search() {
+        IDAStarSearch search = searches.get();
+
+        if (search == null || search.getDimension() != dimension) {
+            search = new IDAStarSearch(dimension, heuristic);
+            searches.set(search);
+        }
+
+        if (getTimeLimit() > 0) {
+            search.setDeadline(getDeadline());
+        } else {
+            search.clearDeadline();
+        }
+
+        return search;
+    }
+
+    public BoardState solvePuzzle(Board board) {
+        dimension = board.getDimension();
+
+        IDAStarSearch search = search();
+        PackedState codec = new PackedState(board.getDimension());
+        byte[] start = toTiles(board);
+
+        nodes.set(0);
+
+        Frontier frontier = new Frontier();
+        frontier.add(start, new int[0], -1, search.estimate(start));
+
+        // level by level, a level is complete before the next, so a goal found here is a closest one
+        while (frontier.size() < frontierSize) {
+            Frontier next = new Frontier();
+
+            for (int i = 0; i < frontier.size(); i++) {
+                byte[] tiles = frontier.tiles.get(i);
+                int[] prefix = frontier.prefixes.get(i);
+
+                if (frontier.estimates.get(i) == 0 && isSolved(new Board(board.getDimension(), values(tiles)))) {
+                    expandedNodes = nodes.get();
+
+                    return replay(board, prefix);
+                }
+
+                int empty = prefix.length == 0 ? zeroPosition(board) : prefix[prefix.length - 1];
+                nodes.incrementAndGet();
+
+                for (int from : codec.moves(empty)) {
+                    if (from == frontier.previous.get(i)) continue;
+
+                    byte[] child = tiles.clone();
+                    child[empty] = child[from];
+                    child[from] = 0;
+
+                    int[] childPrefix = Arrays.copyOf(prefix, prefix.length + 1);
+                    childPrefix[prefix.length] = from;
+
+                    next.add(child, childPrefix, empty, search.estimate(child));
+                }
+            }
+
+            frontier = next;
+        }
+
+        int bound = search.estimate(start);
+
+        while (true) {
+            Round round = new Round(frontier, bound);
+            int result = round.run();
+            expandedNodes = nodes.get();
+
+            if (result == IDAStarSearch.FOUND) return replay(board, round.solution);
+
+            // a worker out of time returns MAX_VALUE, so the minimum of the others is no next bound
+            if (outOfTime() || result == Integer.MAX_VALUE) return null;
+
+            bound = result;
+        }
+    }
+
+    private static List<Integer> values(byte[] tiles) {
+        List<Integer> values = new ArrayList<Integer>(tiles.length);
+
+        for (byte tile : tiles) {
+            values.add((int) tile);
+        }
+
+        return values;
+    }
+
+    /*
+     * solvable boards of the given dimension, shuffled with a fixed seed
+     */
+    private static List<Board> randomBoards(int dimension, int count) {
+        Random random = new Random(dimension);
+        List<Board> boards = new ArrayList<Board>();
+        SlidingPuzzleSolver check = new IDAStarSolver();
+
+        while (boards.size() < count) {
+            List<Integer> values = new ArrayList<Integer>();
+
+            for (int tile = 0; tile < dimension * dimension; tile++) {
+                values.add(tile);
+            }
+
+            Collections.shuffle(values, random);
+            Board board = new Board(dimension, values);
+
+            if (check.isSolvable(board)) boards.add(board);
+        }
+
+        return boards;
+    }
+
+    public static void main(String[] args) throws IOException, NPuzzleBoardIsNotSolvableException {
+        int dimension = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int instances = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Heuristic heuristic = args.length > 2 && !args[2].equals("-") ? PatternDatabase.load(args[2]) : null;
+        List<Board> boards = randomBoards(dimension, instances);
+        int[] lengths = new int[instances];
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < instances; i++) {
+            lengths[i] = new IDAStarSearch(dimension, heuristic).search(toTiles(boards.get(i)));
+        }
+
+        double sequential = (System.nanoTime() - start) / 1e9;
+        System.out.printf("sequential: %.2f s%n", sequential);
+
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelIDAStarSolver solver = new ParallelIDAStarSolver(pool, heuristic);
+            long nodes = 0;
+
+            start = System.nanoTime();
+
+            for (int i = 0; i < instances; i++) {
+                List<Board> solution = solver.solve(boards.get(i));
+                nodes += solver.getExpandedNodes();
+
+                if (solution.size() - 1 != lengths[i]) {
+                    throw new IllegalStateException("Instance " + i + ": " + (solution.size() - 1) + " moves, sequential found " + lengths[i]);
+                }
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            System.out.printf("%2d threads: %.2f s, %.1f M nodes/s, speedup %.2f%n",
+                threads, seconds, nodes / seconds / 1e6, sequential / seconds);
+        }
+    }
+}
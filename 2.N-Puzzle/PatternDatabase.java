@@ -0,0 +1,243 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/*
+ Disjoint additive pattern databases. The tiles are split into patterns, and for every placement of
+ a pattern's tiles its table holds the fewest moves of those tiles (moves of other tiles are free)
+ that bring them home. No move is counted by two patterns, so the sum over the patterns is a lower
+ bound that dominates the Manhattan distance. See PatternDatabaseBuilder for how the tables are made.
+
+ A placement is indexed by the positions of the pattern tiles in pattern order, each position
+ ranked among the positions not taken by the tiles before it, so a pattern of k tiles on n cells
+ has n! / (n - k)! entries. An entry is a nibble: the moves exceed the Manhattan distance of the
+ pattern tiles by an even number, and the nibble holds half of that, at most 15. Two entries share
+ a byte, the even index in the low nibble.
+
+ File layout (little endian ints): MAGIC, VERSION, dimension, pattern count, then per pattern its
+ size and tiles, then the tables of all patterns one after another.
+ */
+class PatternDatabase implements Heuristic {
+    private static final int MAGIC = 0x50444231; // "PDB1"
+    private static final int VERSION = 1;
+    static final int MAX_EXTRA = 15;
+
+    private final int dimension;
+    private final int[][] patterns;
+    private final ByteBuffer[] tables;
+    private final int[][] manhattan;
+
+    PatternDatabase(int dimension, int[][] patterns, ByteBuffer[] tables) {
+        this.dimension = dimension;
+        this.patterns = patterns;
+        this.tables = tables;
+        this.manhattan = ManhattanHeuristic.distances(dimension);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int[][] getPatterns() {
+        return patterns;
+    }
+
+    /*
+     * number of placements of k tiles on cells cells
+     */
+    static long entries(int cells, int k) {
+        long entries = 1;
+
+        for (int i = 0; i < k; i++) {
+            entries *= cells - i;
+        }
+
+        return entries;
+    }
+
+    /*
+     * index of the placement of the k tiles at positions (see the class comment)
+     */
+    static long rank(int[] positions, int k, int cells) {
+        long used = 0;
+        long index = 0;
+
+        for (int i = 0; i < k; i++) {
+            int position = positions[i];
+
+            index = index * (cells - i) + position - Long.bitCount(used & ((1L << position) - 1));
+            used |= 1L << position;
+        }
+
+        return index;
+    }
+
+    /*
+     * inverse of rank, fills positions and returns the mask of the used positions
+     */
+    static long unrank(long index, int[] positions, int k, int cells) {
+        for (int i = k - 1; i >= 0; i--) {
+            positions[i] = (int) (index % (cells - i));
+            index /= cells - i;
+        }
+
+        long used = 0;
+
+        for (int i = 0; i < k; i++) {
+            int position = -1;
+
+            // the positions[i]-th free position
+            for (int free = positions[i]; free >= 0; free--) {
+                position++;
+
+                while ((used & (1L << position)) != 0) {
+                    position++;
+                }
+            }
+
+            positions[i] = position;
+            used |= 1L << position;
+        }
+
+        return used;
+    }
+
+    public int estimate(byte[] tiles) {
+        return estimate(tiles, new int[tiles.length]);
+    }
+
+    /*
+     * estimate with positions, at least as long as tiles, as scratch space, so a search that asks
+     * after every move allocates nothing
+     */
+    public int estimate(byte[] tiles, int[] positions) {
+        int cells = tiles.length;
+        int estimate = 0;
+
+        for (int position = 0; position < cells; position++) {
+            positions[tiles[position]] = position;
+        }
+
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            int[] patternTiles = patterns[pattern];
+            long used = 0;
+            long index = 0;
+
+            for (int slot = 0; slot < patternTiles.length; slot++) {
+                int tile = patternTiles[slot];
+                int position = positions[tile];
+
+                index = index * (cells - slot) + position - Long.bitCount(used & ((1L << position) - 1));
+                used |= 1L << position;
+                estimate += manhattan[tile][position];
+            }
+
+            estimate += 2 * extra(tables[pattern], index);
+        }
+
+        return estimate;
+    }
+
+    private static int extra(ByteBuffer table, long index) {
+        return (table.get((int) (index >>> 1)) >>> ((int) (index & 1) << 2)) & 0xF;
+    }
+
+    public static PatternDatabase load(String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.limit() < 16 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(fileName + " is not a pattern database");
+            }
+
+            int dimension = buffer.getInt(8);
+            int count = buffer.getInt(12);
+            int cells = dimension * dimension;
+
+            if (dimension < 2 || cells > 64 || count < 1 || count >= cells) throw new IOException(fileName + " has a bad header");
+
+            buffer.position(16);
+            int[][] patterns = new int[count][];
+
+            for (int pattern = 0; pattern < count; pattern++) {
+                int size = buffer.getInt();
+
+                if (size < 1 || size >= cells) throw new IOException(fileName + " has a bad pattern");
+
+                patterns[pattern] = new int[size];
+
+                for (int slot = 0; slot < size; slot++) {
+                    patterns[pattern][slot] = buffer.getInt();
+
+                    if (patterns[pattern][slot] < 1 || patterns[pattern][slot] >= cells) throw new IOException(fileName + " has a bad tile");
+                }
+            }
+
+            ByteBuffer[] tables = new ByteBuffer[count];
+
+            for (int pattern = 0; pattern < count; pattern++) {
+                long bytes = (entries(cells, patterns[pattern].length) + 1) / 2;
+
+                if (buffer.remaining() < bytes) throw new IOException(fileName + " is truncated");
+
+                tables[pattern] = buffer.slice();
+                tables[pattern].limit((int) bytes);
+                buffer.position(buffer.position() + (int) bytes);
+            }
+
+            // the mapping stays valid after the channel is closed
+            return new PatternDatabase(dimension, patterns, tables);
+        } finally {
+            file.close();
+        }
+    }
+
+    public void save(String fileName) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+
+        try {
+            FileChannel channel = file.getChannel();
+            int headerBytes = 16;
+
+            for (int[] pattern : patterns) {
+                headerBytes += 4 + 4 * pattern.length;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(dimension);
+            header.putInt(patterns.length);
+
+            for (int[] pattern : patterns) {
+                header.putInt(pattern.length);
+
+                for (int tile : pattern) {
+                    header.putInt(tile);
+                }
+            }
+
+            header.flip();
+            channel.truncate(0);
+            channel.write(header);
+
+            for (ByteBuffer table : tables) {
+                ByteBuffer data = table.duplicate();
+                data.clear();
+
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ Builds the tables of a PatternDatabase by breadth first search backwards from the goal.
+
+ Only moves of pattern tiles cost anything, so the search state is the placement of the pattern
+ tiles plus the region of free cells the empty tile can reach without moving one of them, known by
+ its lowest cell. A pattern tile next to the region can slide into it for one move, after which the
+ empty tile sits where the tile was. The first time a placement is reached, under any region, is
+ its table entry.
+
+ Every level of the search is split between the threads, each expanding its share of the frontier
+ into a list of its own. (placement, region) pairs are claimed in a shared bit set with a
+ compare-and-set, so every pair is expanded once; the entry of a placement is only ever written
+ with the current level, so racing writes agree.
+
+ Usage: java PatternDatabaseBuilder [dimension] [patterns] [file] [threads]
+
+ where patterns are pattern sizes taking the tiles in reading order ("5-5-5-5-4") or the tiles
+ themselves ("1,5,6,9,10,13/7,8,11,12,14,15/2,3,4", the default 6-6-3 split for 4x4).
+ */
+class PatternDatabaseBuilder {
+    private static final byte UNSEEN = -1;
+
+    private final int dimension;
+    private final int cells;
+    private final int[] tiles;
+    private final int[][] neighbours;
+    private final long allCells;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+    private final long entries;
+    private final byte[] moves;
+    private final AtomicLongArray seen;
+    private final ExecutorService executor;
+    private final int threads;
+
+    private PatternDatabaseBuilder(int dimension, int[] tiles, ExecutorService executor, int threads) {
+        this.dimension = dimension;
+        this.cells = dimension * dimension;
+        this.tiles = tiles;
+        this.neighbours = new int[cells][];
+        this.allCells = cells == 64 ? -1L : (1L << cells) - 1;
+        this.entries = PatternDatabase.entries(cells, tiles.length);
+        this.executor = executor;
+        this.threads = threads;
+
+        if (entries > Integer.MAX_VALUE) throw new IllegalArgumentException("Pattern of " + tiles.length + " tiles is too large");
+
+        PackedState codec = new PackedState(dimension);
+        long firstColumn = 0, lastColumn = 0;
+
+        for (int cell = 0; cell < cells; cell++) {
+            if (cell % dimension == 0) firstColumn |= 1L << cell;
+            if (cell % dimension == dimension - 1) lastColumn |= 1L << cell;
+
+            neighbours[cell] = codec.moves(cell);
+        }
+
+        this.notFirstColumn = ~firstColumn;
+        this.notLastColumn = ~lastColumn;
+        this.moves = new byte[(int) entries];
+        this.seen = new AtomicLongArray((int) ((entries * cells + 63) / 64));
+    }
+
+    public static PatternDatabase build(int dimension, int[][] patterns, int threads) throws InterruptedException {
+        validate(dimension, patterns);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ByteBuffer[] tables = new ByteBuffer[patterns.length];
+
+        try {
+            for (int pattern = 0; pattern < patterns.length; pattern++) {
+                long start = System.nanoTime();
+                PatternDatabaseBuilder builder = new PatternDatabaseBuilder(dimension, patterns[pattern], executor, threads);
+                int depth = builder.search();
+                tables[pattern] = builder.table();
+
+                System.out.printf("Pattern %s: %d placements, %d moves at most, %.1f s%n",
+                    Arrays.toString(patterns[pattern]), builder.entries, depth, (System.nanoTime() - start) / 1e9);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new PatternDatabase(dimension, patterns, tables);
+    }
+
+    private static void validate(int dimension, int[][] patterns) {
+        int cells = dimension * dimension;
+        boolean[] used = new boolean[cells];
+
+        if (dimension < 2 || cells > 64) throw new IllegalArgumentException("Dimension " + dimension + " is not supported");
+
+        for (int[] pattern : patterns) {
+            for (int tile : pattern) {
+                if (tile < 1 || tile >= cells) throw new IllegalArgumentException("No tile " + tile + " on a " + dimension + "x" + dimension + " board");
+                if (used[tile]) throw new IllegalArgumentException("Tile " + tile + " is in two patterns");
+
+                used[tile] = true;
+            }
+        }
+    }
+
+    /*
+     * fills moves, returns the deepest level
+     */
+    private int search() throws InterruptedException {
+        int[] positions = new int[tiles.length];
+
+        for (int slot = 0; slot < tiles.length; slot++) {
+            positions[slot] = tiles[slot] - 1;
+        }
+
+        long used = 0;
+
+        for (int position : positions) {
+            used |= 1L << position;
+        }
+
+        long placement = PatternDatabase.rank(positions, tiles.length, cells);
+        long start = placement * cells + Long.numberOfTrailingZeros(region(cells - 1, used));
+
+        Arrays.fill(moves, UNSEEN);
+        claim(start);
+        moves[(int) placement] = 0;
+
+        long[] frontier = {start};
+        int frontierSize = 1;
+        int level = 0;
+
+        while (true) {
+            List<Expansion> expansions = new ArrayList<Expansion>();
+            int chunk = (frontierSize + threads - 1) / threads;
+
+            for (int from = 0; from < frontierSize; from += chunk) {
+                expansions.add(new Expansion(frontier, from, Math.min(frontierSize, from + chunk), level));
+            }
+
+            int nextSize = 0;
+
+            for (Future<Expansion> done : executor.invokeAll(expansions)) {
+                nextSize += get(done).size;
+            }
+
+            if (nextSize == 0) return level;
+
+            frontier = new long[nextSize];
+            frontierSize = 0;
+
+            for (Expansion expansion : expansions) {
+                System.arraycopy(expansion.next, 0, frontier, frontierSize, expansion.size);
+                frontierSize += expansion.size;
+            }
+
+            level++;
+        }
+    }
+
+    private static Expansion get(Future<Expansion> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private class Expansion implements Callable<Expansion> {
+        private final long[] frontier;
+        private final int from, to;
+        private final int level;
+        private long[] next = new long[1024];
+        private int size = 0;
+
+        private Expansion(long[] frontier, int from, int to, int level) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        public Expansion call() {
+            int k = tiles.length;
+            int[] positions = new int[k];
+
+            for (int i = from; i < to; i++) {
+                long placement = frontier[i] / cells;
+                int empty = (int) (frontier[i] % cells);
+                long used = PatternDatabase.unrank(placement, positions, k, cells);
+                long region = region(empty, used);
+
+                for (int slot = 0; slot < k; slot++) {
+                    int position = positions[slot];
+
+                    for (int target : neighbours[position]) {
+                        if ((region & (1L << target)) == 0) continue;
+
+                        positions[slot] = target;
+                        long nextUsed = used ^ (1L << position) ^ (1L << target);
+                        long nextPlacement = PatternDatabase.rank(positions, k, cells);
+                        long key = nextPlacement * cells + Long.numberOfTrailingZeros(region(position, nextUsed));
+
+                        if (claim(key)) {
+                            if (moves[(int) nextPlacement] == UNSEEN) moves[(int) nextPlacement] = (byte) (level + 1);
+
+                            add(key);
+                        }
+                    }
+
+                    positions[slot] = position;
+                }
+            }
+
+            return this;
+        }
+
+        private void add(long key) {
+            if (size == next.length) next = Arrays.copyOf(next, 2 * size);
+
+            next[size++] = key;
+        }
+    }
+
+    /*
+     * the free cells the empty tile at empty reaches without moving a used cell
+     */
+    private long region(int empty, long used) {
+        long free = allCells & ~used;
+        long region = 1L << empty;
+
+        while (true) {
+            long grown = (region | (region << 1) & notFirstColumn | (region >>> 1) & notLastColumn
+                | region << dimension | region >>> dimension) & free;
+
+            if (grown == region) return region;
+
+            region = grown;
+        }
+    }
+
+    /*
+     * true for the one caller that marks key as seen
+     */
+    private boolean claim(long key) {
+        int word = (int) (key >>> 6);
+        long bit = 1L << key;
+
+        while (true) {
+            long current = seen.get(word);
+
+            if ((current & bit) != 0) return false;
+            if (seen.compareAndSet(word, current, current | bit)) return true;
+        }
+    }
+
+    /*
+     * the nibbles of moves above the Manhattan distance, see PatternDatabase
+     */
+    private ByteBuffer table() {
+        int[][] manhattan = ManhattanHeuristic.distances(dimension);
+        int[] positions = new int[tiles.length];
+        byte[] table = new byte[(int) ((entries + 1) / 2)];
+        long clamped = 0;
+
+        for (long placement = 0; placement < entries; placement++) {
+            int placementMoves = moves[(int) placement];
+
+            if (placementMoves == UNSEEN) continue;
+
+            PatternDatabase.unrank(placement, positions, tiles.length, cells);
+            int distance = 0;
+
+            for (int slot = 0; slot < tiles.length; slot++) {
+                distance += manhattan[tiles[slot]][positions[slot]];
+            }
+
+            int extra = ((placementMoves & 0xFF) - distance) / 2;
+
+            if (extra > PatternDatabase.MAX_EXTRA) {
+                extra = PatternDatabase.MAX_EXTRA;
+                clamped++;
+            }
+
+            table[(int) (placement >>> 1)] |= extra << ((int) (placement & 1) << 2);
+        }
+
+        if (clamped > 0) System.out.println(clamped + " placements capped at Manhattan + " + 2 * PatternDatabase.MAX_EXTRA);
+
+        return ByteBuffer.wrap(table);
+    }
+
+    /*
+     * "5-5-5-5-4" (sizes, tiles in reading order) or "1,2,3/4,5,6" (tiles)
+     */
+    static int[][] parsePatterns(String spec) {
+        String[] parts = spec.contains(",") || spec.contains("/") ? spec.split("/") : spec.split("-");
+        int[][] patterns = new int[parts.length][];
+        int nextTile = 1;
+
+        for (int pattern = 0; pattern < parts.length; pattern++) {
+            if (spec.contains(",") || spec.contains("/")) {
+                String[] tiles = parts[pattern].split(",");
+                patterns[pattern] = new int[tiles.length];
+
+                for (int slot = 0; slot < tiles.length; slot++) {
+                    patterns[pattern][slot] = Integer.parseInt(tiles[slot].trim());
+                }
+            } else {
+                patterns[pattern] = new int[Integer.parseInt(parts[pattern])];
+
+                for (int slot = 0; slot < patterns[pattern].length; slot++) {
+                    patterns[pattern][slot] = nextTile++;
+                }
+            }
+        }
+
+        return patterns;
+    }
+
+    static String defaultPatterns(int dimension) {
+        if (dimension == 3) return "4-4";
+        if (dimension == 4) return "1,5,6,9,10,13/7,8,11,12,14,15/2,3,4";
+        if (dimension == 5) return "5-5-5-5-4";
+
+        throw new IllegalArgumentException("No default patterns for dimension " + dimension);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int dimension = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String spec = args.length > 1 ? args[1] : defaultPatterns(dimension);
+        String fileName = args.length > 2 ? args[2] : "puzzle" + dimension + ".pdb";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        PatternDatabase database = build(dimension, parsePatterns(spec), threads);
+        database.save(fileName);
+
+        System.out.printf("Wrote %s in %.1f s on %d threads%n", fileName, (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.ArrayList;
+
+/*
+ Reads boards in the format of NPuzzle files, the dimension and then the tiles in reading order,
+ straight from the bytes of a channel. Numbers are separated by any run of spaces, tabs, commas
+ and line breaks, so a file may hold one board per line or one per block of lines, back to back.
+ Anything else is an IOException naming the line.
+ */
+class PuzzleParser implements Closeable {
+    private static final int EOF = -1;
+    private static final int MAX_DIMENSION = Heuristic.MAX_DIMENSION;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private int line = 1;
+
+    public PuzzleParser(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer.limit(0);
+    }
+
+    /*
+     * a parser over the file, or standard input for "-"
+     */
+    public static PuzzleParser open(String fileName) throws IOException {
+        if (fileName.equals("-")) return new PuzzleParser(Channels.newChannel(System.in));
+
+        return new PuzzleParser(new RandomAccessFile(fileName, "r").getChannel());
+    }
+
+    /*
+     * the next board, null at the end of the input
+     */
+    public Board next() throws IOException {
+        int dimension = nextInt();
+
+        if (dimension == EOF) return null;
+
+        if (dimension < 2 || dimension > MAX_DIMENSION) throw new IOException("Line " + line + ": dimension " + dimension + " is not supported");
+
+        List<Integer> values = new ArrayList<Integer>(dimension * dimension);
+
+        for (int i = 0; i < dimension * dimension; i++) {
+            int value = nextInt();
+
+            if (value == EOF) throw new IOException("Line " + line + ": board ends after " + i + " tiles");
+
+            values.add(value);
+        }
+
+        return new Board(dimension, values);
+    }
+
+    private int nextInt() throws IOException {
+        int b = nextByte();
+
+        while (isSeparator(b)) {
+            b = nextByte();
+        }
+
+        if (b == EOF) return EOF;
+
+        if (b < '0' || b > '9') throw new IOException("Line " + line + ": unexpected '" + (char) b + "'");
+
+        int value = 0;
+
+        while (b >= '0' && b <= '9') {
+            value = value * 10 + b - '0';
+
+            if (value > MAX_DIMENSION * MAX_DIMENSION) throw new IOException("Line " + line + ": number too large");
+
+            b = nextByte();
+        }
+
+        if (b != EOF && !isSeparator(b)) throw new IOException("Line " + line + ": unexpected '" + (char) b + "'");
+
+        return value;
+    }
+
+    private boolean isSeparator(int b) {
+        if (b == '\n') line++;
+
+        return b == ' ' || b == '\t' || b == ',' || b == '\r' || b == '\n';
+    }
+
+    private int nextByte() throws IOException {
+        while (!buffer.hasRemaining()) {
+            buffer.clear();
+
+            if (channel.read(buffer) < 0) {
+                buffer.limit(0);
+
+                return EOF;
+            }
+
+            buffer.flip();
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -2,14 +2,66 @@ import java.util.List;
 import java.util.ArrayList;
 
 abstract class SlidingPuzzleSolver implements NPuzzleSolver {
+    private long timeLimit = 0;
+    private long deadline;
+    private boolean outOfTime;
+    // states expanded by the current solve, kept up to date by the solvers
+    protected long expandedNodes;
+
     public List<Board> solve(Board board) throws NPuzzleBoardIsNotSolvableException {
         if (!isSolvable(board)) throw new NPuzzleBoardIsNotSolvableException();
 
+        deadline = System.nanoTime() + timeLimit;
+        outOfTime = false;
+        expandedNodes = 0;
+
         BoardState finalState = solvePuzzle(board);
 
         return finalState == null ? null : buildSolutionPath(finalState);
     }
 
+    /*
+     * nanoseconds a solve may take before it gives up and returns null, 0 for no limit
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /*
+     * whether the last solve returned null because it ran out of time
+     */
+    public boolean isOutOfTime() {
+        return outOfTime;
+    }
+
+    /*
+     * states expanded by the last solve
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /*
+     * System.nanoTime() at which the current solve runs out of time, if it has a limit
+     */
+    protected long getDeadline() {
+        return deadline;
+    }
+
+    /*
+     * whether the current solve has run out of time; solvers ask every few thousand states and
+     * return null once it has, which stays true for the rest of the solve
+     */
+    protected boolean outOfTime() {
+        if (!outOfTime && timeLimit > 0 && System.nanoTime() - deadline > 0) outOfTime = true;
+
+        return outOfTime;
+    }
+
     private List<Board> buildSolutionPath(BoardState currentState) {
         List<Board> result;
 
@@ -28,7 +80,8 @@ abstract class SlidingPuzzleSolver implements NPuzzleSolver {
 
     /*
      * NPuzzle is solvable when
-     * >>> zeroRow + numberOfInversions is even <<<
+     * >>> zeroRow + numberOfInversions is even <<< for an even dimension
+     * >>> numberOfInversions is even <<< for an odd dimension
      * where zeroRow is the row number of empty tile (row index starts from 1)
      * where numberOfInversions is the amount of elements Ai and Aj such that i < j and Ai > Aj (Ai /= 0, Aj /= 0)
      */
@@ -46,6 +99,8 @@ abstract class SlidingPuzzleSolver implements NPuzzleSolver {
             }
         }
 
+        if (board.getDimension() % 2 == 1) return numberOfInversions % 2 == 0;
+
         return (zeroRow + numberOfInversions) % 2 == 0;
     }
 
@@ -53,87 +108,90 @@ abstract class SlidingPuzzleSolver implements NPuzzleSolver {
         return board.getValues().indexOf(0);
     }
 
-    protected BoardState initBoardState(Board board) {
-        return new BoardState(
-            board,
-            zeroPosition(board),
-            boardDistance(board),
-            0,
-            null
-        );
+    /*
+     * the states with the given ids, first to last, as a chain of BoardStates ending in the last one
+     */
+    protected BoardState buildBoardState(PackedState codec, PackedStateSet states, int[] path, int length) {
+        BoardState boardState = null;
+
+        for (int i = 0; i < length; i++) {
+            Board board = codec.toBoard(states.states(), path[i] * states.words());
+            boardState = new BoardState(board, zeroPosition(board), boardDistance(board), i, boardState);
+        }
+
+        return boardState;
     }
 
-    protected List<BoardState> generatePossibleMoves(BoardState currentState) {
-        List<BoardState> possibleMoves = new ArrayList<BoardState>();
+    /*
+     * ids from the first state to id, following parents (NONE for the first state)
+     */
+    protected static int[] pathTo(int[] parents, int id) {
+        int length = 0;
 
-        for (MoveDirection moveDirection : MoveDirection.values()) {
-            possibleMoves.add(makeMove(currentState, moveDirection));
+        for (int current = id; current != PackedStateSet.NONE; current = parents[current]) {
+            length++;
         }
 
-        return possibleMoves;
-    }
-
-    private BoardState makeMove(BoardState currentState, MoveDirection moveDirection) {
-        BoardState nextState = null;
-        int emptyTileRow = positionToRow(currentState.getBoard().getDimension(), currentState.getEmptyTile());
-        int emptyTileCol = positionToColumn(currentState.getBoard().getDimension(), currentState.getEmptyTile());
-
-        switch (moveDirection) {
-            case North:
-                if (emptyTileRow > 0) {
-                    nextState = updatePuzzleState(currentState, emptyTileRow - 1, emptyTileCol);
-                }
-                break;
-            case East:
-                if (emptyTileCol < currentState.getBoard().getDimension() - 1) {
-                    nextState = updatePuzzleState(currentState, emptyTileRow, emptyTileCol + 1);
-                }
-                break;
-            case South:
-                if (emptyTileRow < currentState.getBoard().getDimension() - 1) {
-                    nextState = updatePuzzleState(currentState, emptyTileRow + 1, emptyTileCol);
-                }
-                break;
-            case West:
-                if (emptyTileCol > 0) {
-                    nextState = updatePuzzleState(currentState, emptyTileRow, emptyTileCol - 1);
-                }
-                break;
+        int[] path = new int[length];
+
+        for (int current = id; current != PackedStateSet.NONE; current = parents[current]) {
+            path[--length] = current;
         }
 
-        return nextState;
+        return path;
     }
 
-    private int positionToRow(int dimension, int tilePosition) {
-        return tilePosition / dimension;
+    /*
+     * for the solvers that keep tiles or positions in bytes, which cannot go past Heuristic.MAX_DIMENSION
+     */
+    protected static void checkDimension(int dimension) {
+        if (dimension > Heuristic.MAX_DIMENSION) {
+            throw new IllegalArgumentException("Dimension " + dimension + " is not supported, the largest is " + Heuristic.MAX_DIMENSION);
+        }
     }
 
-    private int positionToColumn(int dimension, int tilePosition) {
-        return tilePosition % dimension;
-    }
+    /*
+     * the tile at every position, see Heuristic
+     */
+    protected static byte[] toTiles(Board board) {
+        checkDimension(board.getDimension());
 
-    private int rowColToPosition(int dimension, int row, int col) {
-        return row * dimension + col;
+        List<Integer> values = board.getValues();
+        byte[] tiles = new byte[values.size()];
+
+        for (int position = 0; position < tiles.length; position++) {
+            tiles[position] = (byte) (int) values.get(position);
+        }
+
+        return tiles;
     }
 
-    private BoardState updatePuzzleState(BoardState currentState, int row, int col) {
-        List<Integer> values = new ArrayList<Integer>(currentState.getBoard().getValues());
+    /*
+     * the BoardStates along the solution, given as the position of the empty tile after each move
+     */
+    protected BoardState replay(Board board, int[] solution) {
+        BoardState boardState = new BoardState(board, zeroPosition(board), boardDistance(board), 0, null);
+
+        for (int move = 0; move < solution.length; move++) {
+            List<Integer> values = new ArrayList<Integer>(boardState.getBoard().getValues());
+            int empty = boardState.getEmptyTile();
+
+            values.set(empty, values.get(solution[move]));
+            values.set(solution[move], 0);
 
-        int newEmptyTilePosition = rowColToPosition(currentState.getBoard().getDimension(), row, col);
-        int value = values.get(newEmptyTilePosition);
+            Board next = new Board(board.getDimension(), values);
+            boardState = new BoardState(next, solution[move], boardDistance(next), move + 1, boardState);
+        }
 
-        int newDistance = currentState.getDistance() - manhattan(value, currentState.getBoard().getDimension(), newEmptyTilePosition) + manhattan(value, currentState.getBoard().getDimension(), currentState.getEmptyTile());
+        return boardState;
+    }
 
-        values.set(currentState.getEmptyTile(), value);
-        values.set(newEmptyTilePosition, 0);
+    private int positionToRow(int dimension, int tilePosition) {
+        return tilePosition / dimension;
+    }
 
-        return new BoardState(
-            new Board(currentState.getBoard().getDimension(), values),
-            newEmptyTilePosition,
-            newDistance,
-            currentState.getMoves() + 1,
-            currentState
-        );
+    private int positionToColumn(int dimension, int tilePosition) {
+        return tilePosition % dimension;
     }
 
     protected boolean isSolved(Board board) {
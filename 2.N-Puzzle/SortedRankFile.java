@@ -0,0 +1,192 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/*
+ A file of strictly increasing longs, the permutation ranks of one layer (or one run) of
+ ExternalBFS. Each rank is stored as its difference from the one before (the first from 0) in a
+ varint of 7 bits per byte, low bits first, so the dense layers of a breadth first search take a
+ byte or two per state. Both ends go through a direct buffer over a FileChannel.
+
+ File layout (little endian): MAGIC, VERSION, rows, columns, depth (ints), count (long), then the
+ varints. The header is written last, on close.
+ */
+class SortedRankFile {
+    private static final int MAGIC = 0x524E4B31; // "RNK1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    static class Writer implements Closeable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final int rows, columns, depth;
+        private long last = 0;
+        private long count = 0;
+
+        public Writer(File path, int rows, int columns, int depth) throws IOException {
+            this.file = new RandomAccessFile(path, "rw");
+            this.channel = file.getChannel();
+            this.rows = rows;
+            this.columns = columns;
+            this.depth = depth;
+
+            channel.truncate(0);
+            channel.position(HEADER_BYTES);
+        }
+
+        public void add(long rank) throws IOException {
+            if (count > 0 && rank <= last) throw new IllegalArgumentException("Rank " + rank + " after " + last);
+
+            long delta = rank - last;
+
+            if (buffer.remaining() < 10) flush();
+
+            while ((delta & ~0x7FL) != 0) {
+                buffer.put((byte) (delta & 0x7F | 0x80));
+                delta >>>= 7;
+            }
+
+            buffer.put((byte) delta);
+            last = rank;
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+        public void close() throws IOException {
+            try {
+                flush();
+
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns).putInt(depth).putLong(count);
+                buffer.flip();
+                channel.position(0);
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                channel.force(false);
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    static class Reader implements Closeable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final int rows, columns, depth;
+        private final long count;
+        private long read = 0;
+        private long last = 0;
+
+        public Reader(File path) throws IOException {
+            this.file = new RandomAccessFile(path, "r");
+            this.channel = file.getChannel();
+
+            try {
+                buffer.limit(HEADER_BYTES);
+                fill();
+
+                if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    throw new IOException(path + " is not a rank file");
+                }
+
+                rows = buffer.getInt();
+                columns = buffer.getInt();
+                depth = buffer.getInt();
+                count = buffer.getLong();
+                buffer.clear().limit(0);
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public boolean hasNext() {
+            return read < count;
+        }
+
+        public long next() throws IOException {
+            if (read == count) throw new EOFException("Read all " + count + " ranks");
+
+            if (buffer.remaining() < 10) {
+                buffer.compact();
+                fill();
+            }
+
+            long delta = 0;
+
+            for (int shift = 0; ; shift += 7) {
+                if (!buffer.hasRemaining()) throw new EOFException("Truncated rank file");
+
+                byte b = buffer.get();
+                delta |= (long) (b & 0x7F) << shift;
+
+                if (b >= 0) break;
+            }
+
+            last += delta;
+            read++;
+
+            return last;
+        }
+
+        /*
+         * the rank next returned last
+         */
+        public long last() {
+            return last;
+        }
+
+        /*
+         * reads from the channel until the buffer is full or the file ends, then flips it
+         */
+        private void fill() throws IOException {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            }
+
+            buffer.flip();
+        }
+
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}